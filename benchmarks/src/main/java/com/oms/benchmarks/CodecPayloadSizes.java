@@ -0,0 +1,24 @@
+package com.oms.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+// Prints the encoded size of each body JacksonCodecBenchmark times, per codec, to read next to its timings.
+// Run with: java -cp <benchmarks classpath> com.oms.benchmarks.CodecPayloadSizes
+public class CodecPayloadSizes {
+
+    private static final List<String> CODECS = List.of("json", "smile", "cbor");
+
+    private static final List<String> BODIES = List.of("InventoryItemDTO", "CatalogDTO", "OrderDTO");
+
+    public static void main(String[] args) throws Exception {
+        for (String body : BODIES) {
+            for (String codec : CODECS) {
+                ObjectMapper objectMapper = JacksonCodecBenchmark.objectMapper(codec);
+                byte[] encoded = objectMapper.writeValueAsBytes(JacksonCodecBenchmark.body(body));
+                System.out.println(String.format("%s as %s: %d bytes", body, codec, encoded.length));
+            }
+        }
+    }
+}
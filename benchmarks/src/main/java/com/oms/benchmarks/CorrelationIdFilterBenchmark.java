@@ -0,0 +1,63 @@
+package com.oms.benchmarks;
+
+import com.oms.orders.filter.CorrelationIdFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+// Overhead the filter adds to every request, against calling the chain directly. Without an incoming
+// header the filter generates a UUID, which is the more expensive path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorrelationIdFilterBenchmark {
+
+    private CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    private FilterChain chain = (request, response) -> {
+    };
+
+    private MockHttpServletRequest requestWithId;
+
+    private MockHttpServletRequest requestWithoutId;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        requestWithId = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+        requestWithId.addHeader("X-Correlation-ID", "2f1d0c4e-8a55-4f0e-9d57-1f6f3f5a7b21");
+        requestWithoutId = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void chainOnly() throws Exception {
+        chain.doFilter(requestWithId, response);
+    }
+
+    @Benchmark
+    public void withIncomingId() throws Exception {
+        filter.doFilter(requestWithId, response, chain);
+    }
+
+    @Benchmark
+    public void withGeneratedId() throws Exception {
+        filter.doFilter(requestWithoutId, response, chain);
+    }
+}
@@ -0,0 +1,93 @@
+package com.oms.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Encode/decode cost of the bodies exchanged between services, per codec the WebClients can negotiate.
+// JMH only reports timings; CodecPayloadSizes prints the encoded size of each body per codec.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonCodecBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String codec;
+
+    @Param({"InventoryItemDTO", "CatalogDTO", "OrderDTO"})
+    public String body;
+
+    private ObjectMapper objectMapper;
+
+    private Object value;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = objectMapper(codec);
+        value = body(body);
+        encoded = objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return objectMapper.readValue(encoded, value.getClass());
+    }
+
+    static ObjectMapper objectMapper(String codec) {
+        return switch (codec) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException(String.format("Unknown codec %s", codec));
+        };
+    }
+
+    static Object body(String body) {
+        return switch (body) {
+            case "InventoryItemDTO" -> new InventoryItemDTO(1, 140);
+            case "CatalogDTO" -> catalogItem();
+            case "OrderDTO" -> order();
+            default -> throw new IllegalArgumentException(String.format("Unknown body %s", body));
+        };
+    }
+
+    private static CatalogDTO catalogItem() {
+        CatalogDTO catalogItem = new CatalogDTO(1, "Ceramic mug", 12.5, "kitchen");
+        catalogItem.setAvailableStock(140);
+        return catalogItem;
+    }
+
+    private static OrderDTO order() {
+        OrderDTO order = new OrderDTO(1, 3, OrderStatus.NEW, "customer@example.com");
+        order.setId(1001);
+        order.setPricePerUnit(12.5);
+        order.setTotalPrice(37.5);
+        return order;
+    }
+}
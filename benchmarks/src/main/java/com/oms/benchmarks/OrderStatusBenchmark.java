@@ -0,0 +1,39 @@
+package com.oms.benchmarks;
+
+import com.oms.orders.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// OrdersService.isOrderStatusValid was replaced by the OrderStatus enum: request values are resolved with
+// fromValue and updates are checked with canTransitionTo, so those are the status checks measured here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderStatusBenchmark {
+
+    @Param({"new", "out for delivery", "unknown"})
+    public String value;
+
+    @Benchmark
+    public OrderStatus fromValue() {
+        return OrderStatus.fromValue(value);
+    }
+
+    @Benchmark
+    public boolean canTransitionTo() {
+        return OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED);
+    }
+}
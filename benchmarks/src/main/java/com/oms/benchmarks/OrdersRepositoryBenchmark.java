@@ -0,0 +1,124 @@
+package com.oms.benchmarks;
+
+import com.oms.orders.OrdersApplication;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Repository paths of the orders service against an in-memory H2 database created by the service's own
+// Liquibase changelog. Rows inserted by the insert benchmarks are removed after every iteration so the
+// table stays at the seeded size. insert is one transaction per order, as the single-order endpoint does;
+// insertBatched is one saveAll, as the bulk endpoint does, reported per row. H2 has no network round trip,
+// so the gap against a remote Postgres is larger than what this measures.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrdersRepositoryBenchmark {
+
+    private static final int SEEDED_ORDERS = 10_000;
+
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private OrdersRepository ordersRepository;
+
+    private int lookupId;
+
+    private List<Integer> insertedIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startOrdersService() {
+        context = new SpringApplicationBuilder(OrdersApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.liquibase.change-log=classpath:liquibase-orders-changelog.xml",
+                        "--logging.level.root=WARN");
+        ordersRepository = context.getBean(OrdersRepository.class);
+
+        List<OrderEntity> orders = new ArrayList<>();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < SEEDED_ORDERS; i++) {
+            int quantity = 1 + i % 5;
+            orders.add(new OrderEntity(1 + i % 500, quantity, 12.5, quantity * 12.5, statuses[i % statuses.length], "customer@example.com"));
+        }
+        lookupId = ordersRepository.saveAll(orders).get(SEEDED_ORDERS / 2).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeInsertedOrders() {
+        ordersRepository.deleteAllByIdInBatch(insertedIds);
+        insertedIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopOrdersService() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderEntity findById() {
+        return ordersRepository.findById(lookupId).orElse(null);
+    }
+
+    @Benchmark
+    public List<OrderEntity> findStatusPage() {
+        return ordersRepository.findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.NEW, 0, Limit.of(50));
+    }
+
+    @Benchmark
+    public List<Object[]> sumOrdersByStatus() {
+        return ordersRepository.sumOrdersByStatus();
+    }
+
+    @Benchmark
+    public OrderEntity insert() {
+        OrderEntity saved = ordersRepository.save(newOrder());
+        insertedIds.add(saved.getId());
+        return saved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH_SIZE)
+    public List<OrderEntity> insertBatched() {
+        List<OrderEntity> orders = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+            orders.add(newOrder());
+        }
+        List<OrderEntity> saved = ordersRepository.saveAll(orders);
+        saved.forEach(order -> insertedIds.add(order.getId()));
+        return saved;
+    }
+
+    private OrderEntity newOrder() {
+        return new OrderEntity(1, 2, 12.5, 25.0, OrderStatus.NEW, "customer@example.com");
+    }
+}
@@ -0,0 +1,70 @@
+package com.oms.orders.controller;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.webclient.CatalogClient;
+import com.oms.orders.webclient.CatalogItemCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the controller's package because the conversions are package-private. The catalog price
+// lookup is served from a warm CatalogItemCache, which is the common case on order creation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderConversionBenchmark {
+
+    private OrdersController ordersController;
+
+    private OrderDTO orderDTO;
+
+    private OrderEntity orderEntity;
+
+    @Setup
+    public void setup() {
+        CatalogDTO catalogItem = new CatalogDTO(1, "Ceramic mug", 12.5, "kitchen");
+        CatalogClient catalogClient = new CatalogClient() {
+            @Override
+            public Mono<CatalogDTO> getCatalogItem(int itemId) {
+                return Mono.just(catalogItem);
+            }
+
+            @Override
+            public Mono<List<CatalogDTO>> getCatalogItems(List<Integer> itemIds) {
+                return Mono.just(List.of(catalogItem));
+            }
+        };
+        CatalogItemCache catalogItemCache = new CatalogItemCache(catalogClient, 10_000, 300, 30, new SimpleMeterRegistry());
+        ordersController = new OrdersController(null, catalogItemCache, null, null, null);
+        orderDTO = new OrderDTO(1, 3, OrderStatus.NEW, "customer@example.com");
+        orderEntity = ordersController.convertDtoToEntity(orderDTO);
+    }
+
+    @Benchmark
+    public OrderEntity convertDtoToEntity() {
+        return ordersController.convertDtoToEntity(orderDTO);
+    }
+
+    @Benchmark
+    public OrderDTO convertEntityToDto() {
+        return OrdersController.convertEntityToDto(orderEntity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.oms.catalog;
+
+import com.oms.inventory.UnixSocketConnectorCustomizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// When catalog.unix-socket.path is set, Tomcat also accepts HTTP on that Unix domain socket.
+@Configuration
+public class UnixSocketConnectorConfig {
+
+    @Bean
+    public UnixSocketConnectorCustomizer unixSocketConnector(
+            @Value("${catalog.unix-socket.path:}") String socketPath,
+            @Value("${catalog.unix-socket.permissions:rw-rw----}") String permissions) {
+        return new UnixSocketConnectorCustomizer(socketPath, permissions);
+    }
+}
@@ -0,0 +1,29 @@
+package com.oms.catalog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oms.catalog.entity.CatalogItemEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CatalogCacheConfig {
+
+    @Bean
+    public Cache<Integer, CatalogItemEntity> catalogItemCache(@Value("${catalog.cache.max-size:10000}") long maxSize,
+                                                              @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds,
+                                                              MeterRegistry meterRegistry) {
+        Cache<Integer, CatalogItemEntity> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // Publishes cache.gets (hit/miss), cache.evictions and cache.size tagged with cache=catalogItems.
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogItems");
+    }
+}
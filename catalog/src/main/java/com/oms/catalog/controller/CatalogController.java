@@ -3,14 +3,21 @@ package com.oms.catalog.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.dto.CatalogPageDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
 import com.oms.catalog.service.CatalogService;
+import com.oms.catalog.webClient.DownstreamUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +25,9 @@ import java.util.List;
 @RequestMapping("api/v1/catalog")
 public class CatalogController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -37,11 +47,54 @@ public class CatalogController {
             List<CatalogItemEntity> items = catalogService.getAllCatalogItems();
             return ResponseEntity.ok(items);
         } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
             e.printStackTrace();
             return ResponseEntity.status(500).body(new ArrayList<>());
         }
     }
 
+    @GetMapping(value = "/items", params = "limit")
+    public ResponseEntity<CatalogPageDTO> getItemsPage(@RequestParam(value = "after", defaultValue = "0") int after,
+                                                       @RequestParam("limit") int limit) {
+        logger.info(String.format("Received request to fetch %s items after id %s in the catalog", limit, after));
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(400).build(); // 400 Bad Request
+        }
+        try {
+            CatalogPageDTO page = catalogService.getCatalogItemsPage(after, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    // The body is written on an MVC async thread, so the whole export has to finish within
+    // spring.mvc.async.request-timeout rather than the container's default of 30 seconds.
+    @GetMapping(value = "/items/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllItems() {
+        logger.info("Received request to export all items in the catalog");
+        StreamingResponseBody body = outputStream -> catalogService.streamAllCatalogItems(chunk -> {
+            try {
+                for (CatalogDTO item : chunk) {
+                    outputStream.write(objectMapper.writeValueAsBytes(item));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping("/items")
     public ResponseEntity<Void> createNewItem(@RequestBody CatalogDTO catalogDTO) {
         logger.info("Received request to create a new item in the catalog");
@@ -49,6 +102,24 @@ public class CatalogController {
             CatalogItemEntity itemEntity = convertDTOToEntity(catalogDTO);
             catalogService.addNewItem(itemEntity);
             return ResponseEntity.status(201).build(); // 201 Created
+        } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @PostMapping("/items/batch")
+    public ResponseEntity<List<CatalogItemEntity>> returnItemsWithIds(@RequestBody List<Integer> ids) {
+        logger.info(String.format("Received request to fetch %s items in the catalog", ids.size()));
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(400).build(); // 400 Bad Request
+        }
+        try {
+            return ResponseEntity.ok(catalogService.getItemsByIds(ids));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).build();
@@ -65,6 +136,10 @@ public class CatalogController {
             }
             return ResponseEntity.ok(catalogItem); // 200 OK
         } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
             e.printStackTrace();
             return ResponseEntity.status(500).build();
         }
@@ -77,6 +152,10 @@ public class CatalogController {
             List<CatalogItemEntity> catalogItems = catalogService.getItemsByCategory(category);
             return ResponseEntity.ok(catalogItems);
         } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
             return ResponseEntity.status(500).build();
         }
     }
@@ -121,6 +200,11 @@ public class CatalogController {
         }
     }
 
+    // Inventory was not called because it is unavailable; the client should retry after the given delay.
+    private static <T> ResponseEntity<T> serviceUnavailable(DownstreamUnavailableException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).build();
+    }
+
     private CatalogItemEntity convertDTOToEntity(CatalogDTO catalogDTO) {
         return new CatalogItemEntity(
                 catalogDTO.getName(),
@@ -8,12 +8,19 @@ public class CatalogDTO {
     private String category;
     private int availableStock;
 
+    public CatalogDTO() {}
+
     public CatalogDTO(String name, Double pricePerUnit, String category) {
         this.name = name;
         this.pricePerUnit = pricePerUnit;
         this.category = category;
     }
 
+    public CatalogDTO(int id, String name, Double pricePerUnit, String category) {
+        this(name, pricePerUnit, category);
+        this.id = id;
+    }
+
     public int getId() {
         return id;
     }
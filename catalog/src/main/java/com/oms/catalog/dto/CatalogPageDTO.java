@@ -0,0 +1,34 @@
+package com.oms.catalog.dto;
+
+import com.oms.catalog.entity.CatalogItemEntity;
+
+import java.util.List;
+
+public class CatalogPageDTO {
+
+    private List<CatalogItemEntity> items;
+    private Integer nextCursor;
+
+    public CatalogPageDTO() {}
+
+    public CatalogPageDTO(List<CatalogItemEntity> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<CatalogItemEntity> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CatalogItemEntity> items) {
+        this.items = items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
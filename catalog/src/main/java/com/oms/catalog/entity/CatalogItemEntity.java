@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "catelog_items")
 public class CatalogItemEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catelog_items_id_pool_seq")
+    @SequenceGenerator(name = "catelog_items_id_pool_seq", sequenceName = "catelog_items_id_pool_seq", allocationSize = 50)
     @Column(name = "id")
     private int id;
 
@@ -1,14 +1,28 @@
 package com.oms.catalog.repository;
 
+import com.oms.catalog.dto.CatalogDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CatalogRepository extends JpaRepository<CatalogItemEntity, Integer> {
     public List<CatalogItemEntity> findAllByCategory(String category);
 
+    public List<CatalogItemEntity> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    // Projects straight into DTOs so rows are not kept in the persistence context while streaming.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.oms.catalog.dto.CatalogDTO(c.id, c.name, c.pricePerUnit, c.category) from CatalogItemEntity c order by c.id")
+    public Stream<CatalogDTO> streamAllOrderById();
+
     @Transactional
     public void deleteAllByCategory(String category);
 }
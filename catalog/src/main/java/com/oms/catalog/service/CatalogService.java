@@ -1,30 +1,50 @@
 package com.oms.catalog.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.dto.CatalogPageDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
 import com.oms.catalog.repository.CatalogRepository;
-import com.oms.catalog.webClient.InventoryServiceWebClient;
+import com.oms.catalog.webClient.InventoryLookupCoalescer;
+import com.oms.catalog.webClient.InventoryClient;
 import com.oms.inventory.dto.InventoryItemDTO;
 import com.oms.inventory.entity.InventoryItemEntity;
 import com.oms.inventory.service.InventoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CatalogService {
 
     Logger logger = LoggerFactory.getLogger(CatalogService.class);
 
+    private static final int STOCK_LOOKUP_BATCH_SIZE = 500;
+    private static final int STOCK_LOOKUP_CONCURRENCY = 4;
+
     private CatalogRepository catalogRepository;
-    private InventoryServiceWebClient inventoryServiceWebClient;
+    private InventoryClient inventoryClient;
+    private InventoryLookupCoalescer inventoryLookupCoalescer;
+    private Cache<Integer, CatalogItemEntity> catalogItemCache;
 
-    public CatalogService(CatalogRepository catalogRepository, InventoryServiceWebClient inventoryServiceWebClient) {
+    public CatalogService(CatalogRepository catalogRepository, InventoryClient inventoryClient,
+                          InventoryLookupCoalescer inventoryLookupCoalescer, Cache<Integer, CatalogItemEntity> catalogItemCache) {
         this.catalogRepository = catalogRepository;
-        this.inventoryServiceWebClient = inventoryServiceWebClient;
+        this.inventoryClient = inventoryClient;
+        this.inventoryLookupCoalescer = inventoryLookupCoalescer;
+        this.catalogItemCache = catalogItemCache;
     }
 
     public CatalogItemEntity addNewItem(CatalogItemEntity item) throws RuntimeException {
@@ -35,7 +55,7 @@ public class CatalogService {
             id = returnedItem.getId();
             InventoryItemDTO inventoryItemDTO = new InventoryItemDTO(id, 0);
             try {
-                inventoryServiceWebClient.createInventoryEntry(inventoryItemDTO).block();
+                inventoryClient.createInventoryEntry(inventoryItemDTO).block();
             } catch (Exception ex) {
                 logger.error("Error occurred while creating inventory entry", ex);
                 logger.info("Rolling back catalog item creation due to inventory error");
@@ -57,39 +77,125 @@ public class CatalogService {
         }
         item.setID(id);
         CatalogItemEntity returnedItem = catalogRepository.save(item);
+        catalogItemCache.invalidate(id);
         logger.info(String.format("Updated item with id %s", id));
         return returnedItem;
     }
 
     public List<CatalogItemEntity> getAllCatalogItems() {
         List<CatalogItemEntity> catalogItems = catalogRepository.findAll();
-        for(CatalogItemEntity item: catalogItems){
-            int id = item.getId();
-            InventoryItemDTO inventoryItem = inventoryServiceWebClient.getInventoryItemById(id).block();
-            if (inventoryItem != null) {
-                item.setAvailableStock(inventoryItem.getQuantity());
+        enrichWithStock(catalogItems);
+        return catalogItems;
+    }
+
+    public CatalogPageDTO getCatalogItemsPage(int afterId, int limit) {
+        // One extra row tells us whether another page exists without a count query.
+        List<CatalogItemEntity> rows = catalogRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        Integer nextCursor = null;
+        List<CatalogItemEntity> pageItems = rows;
+        if (rows.size() > limit) {
+            pageItems = new ArrayList<>(rows.subList(0, limit));
+            nextCursor = pageItems.get(limit - 1).getId();
+        }
+        enrichWithStock(pageItems);
+        logger.info(String.format("Fetched %s catalog items after id %s", pageItems.size(), afterId));
+        return new CatalogPageDTO(pageItems, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllCatalogItems(Consumer<List<CatalogDTO>> chunkConsumer) {
+        try (Stream<CatalogDTO> rows = catalogRepository.streamAllOrderById()) {
+            List<CatalogDTO> chunk = new ArrayList<>(STOCK_LOOKUP_BATCH_SIZE);
+            rows.forEach(row -> {
+                chunk.add(row);
+                if (chunk.size() == STOCK_LOOKUP_BATCH_SIZE) {
+                    emitChunkWithStock(chunk, chunkConsumer);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                emitChunkWithStock(chunk, chunkConsumer);
+            }
+        }
+    }
+
+    private void emitChunkWithStock(List<CatalogDTO> chunk, Consumer<List<CatalogDTO>> chunkConsumer) {
+        Map<Integer, Integer> stockById = getStockByIds(chunk.stream().map(CatalogDTO::getId).toList());
+        for (CatalogDTO item : chunk) {
+            Integer stock = stockById.get(item.getId());
+            if (stock != null) {
+                item.setAvailableStock(stock);
+            }
+        }
+        chunkConsumer.accept(chunk);
+    }
+
+    private Map<Integer, Integer> getStockByIds(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += STOCK_LOOKUP_BATCH_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + STOCK_LOOKUP_BATCH_SIZE, ids.size())));
+        }
+        List<InventoryItemDTO> inventoryItems = Flux.fromIterable(chunks)
+                .flatMap(inventoryClient::getInventoryItemsByIds, STOCK_LOOKUP_CONCURRENCY)
+                .flatMapIterable(items -> items)
+                .collectList()
+                .block();
+        Map<Integer, Integer> stockById = new HashMap<>();
+        if (inventoryItems != null) {
+            for (InventoryItemDTO inventoryItem : inventoryItems) {
+                stockById.put(inventoryItem.getId(), inventoryItem.getQuantity());
+            }
+        }
+        return stockById;
+    }
+
+    private void enrichWithStock(List<CatalogItemEntity> catalogItems) {
+        if (catalogItems.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = catalogItems.stream().map(CatalogItemEntity::getId).toList();
+        Map<Integer, Integer> stockById = getStockByIds(ids);
+        for (CatalogItemEntity item : catalogItems) {
+            Integer stock = stockById.get(item.getId());
+            if (stock != null) {
+                item.setAvailableStock(stock);
             }
         }
-        return catalogItems;
     }
 
 
     public CatalogItemEntity getItemById(int id) {
-        CatalogItemEntity item = catalogRepository.findById(id).orElse(null);
-        if (item == null) {
+        // Misses are not cached, so an item created after a failed lookup is found straight away.
+        CatalogItemEntity cachedItem = catalogItemCache.get(id, key -> catalogRepository.findById(key).orElse(null));
+        if (cachedItem == null) {
             logger.info(String.format("Could not find item with id: %s", id));
-            return item;
+            return null;
         }
-        InventoryItemDTO inventoryItemDTO = inventoryServiceWebClient.getInventoryItemById(id).block();
+        // The cached instance is shared, so callers get their own copy to set stock on.
+        CatalogItemEntity item = new CatalogItemEntity(cachedItem.getName(), cachedItem.getPricePerUnit(), cachedItem.getCategory());
+        item.setID(cachedItem.getId());
+        InventoryItemDTO inventoryItemDTO = inventoryLookupCoalescer.getInventoryItemById(id).block();
         if (inventoryItemDTO != null) {
             item.setAvailableStock(inventoryItemDTO.getQuantity());
         }
-        logger.info(String.format("Found item with id ", id));
+        logger.info(String.format("Found item with id %s", id));
         return item;
     }
 
+    // Used for pricing, so stock is not filled in. Ids with no catalog item are left out of the result.
+    public List<CatalogItemEntity> getItemsByIds(List<Integer> ids) {
+        Map<Integer, CatalogItemEntity> itemsFound = catalogItemCache.getAll(ids, missingIds -> {
+            Map<Integer, CatalogItemEntity> loaded = new HashMap<>();
+            catalogRepository.findAllById(new ArrayList<Integer>(missingIds)).forEach(item -> loaded.put(item.getId(), item));
+            return loaded;
+        });
+        logger.info(String.format("Found %s of %s requested items in catalog", itemsFound.size(), ids.size()));
+        return new ArrayList<>(itemsFound.values());
+    }
+
     public List<CatalogItemEntity> getItemsByCategory(String category) {
         List<CatalogItemEntity> itemsFound  = catalogRepository.findAllByCategory(category);
+        enrichWithStock(itemsFound);
         return itemsFound;
     }
 
@@ -99,18 +205,21 @@ public class CatalogService {
             return false;
         } else {
             catalogRepository.deleteById(id);
+            catalogItemCache.invalidate(id);
             logger.info(String.format("Deleted item with id: %s", id));
             return true;
         }
     }
 
     public Boolean deleteAllItemsOfCategory(String category){
-        if (getItemsByCategory(category).isEmpty()) {
+        List<CatalogItemEntity> itemsOfCategory = catalogRepository.findAllByCategory(category);
+        if (itemsOfCategory.isEmpty()) {
             logger.error(String.format("Could not delete items with category: %s", category));
             return false;
         }
 
         catalogRepository.deleteAllByCategory(category);
+        catalogItemCache.invalidateAll(itemsOfCategory.stream().map(CatalogItemEntity::getId).toList());
         logger.info(String.format("Deleted items of category %s", category));
         return true;
     }
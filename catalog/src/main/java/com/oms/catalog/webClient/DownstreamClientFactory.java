@@ -0,0 +1,164 @@
+package com.oms.catalog.webClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+// Builds the WebClient for one downstream service: a Reactor Netty client with its own connection pool,
+// the call guard in front of it and the configured body codec. Used by catalog and orders; each service
+// registers its own instance, which closes the pools it created when its context shuts down.
+// Pool metrics are published as reactor.netty.connection.provider.* tagged with <service>.<downstream>.
+public class DownstreamClientFactory implements DisposableBean {
+
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private String service;
+
+    private MeterRegistry meterRegistry;
+
+    private List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
+    public DownstreamClientFactory(String service, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public WebClient create(WebClient.Builder builder, String name, DownstreamProperties.Downstream settings) {
+        warnIfPoolDoesNotMatchGuard(name, settings);
+        return builder.baseUrl(settings.getBaseUrl())
+                .clientConnector(clientConnector(name, settings))
+                .defaultHeaders(headers -> applyCodec(headers, name, settings.getCodec()))
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new SingleValueCborEncoder());
+                    codecs.customCodecs().register(new Jackson2CborDecoder());
+                })
+                .filter(DownstreamGuard.fromSettings(name, settings, meterRegistry))
+                .filter(failWhenNoConnectionIsFree(name))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    // The guard admits max-concurrent-calls, so the pool needs exactly that many connections plus queue
+    // slots: fewer and admitted calls are refused by the pool, more and the queue can never fill.
+    private void warnIfPoolDoesNotMatchGuard(String name, DownstreamProperties.Downstream settings) {
+        int poolCapacity = settings.getMaxConnections() + settings.getPendingAcquireMaxCount();
+        if (poolCapacity != settings.getMaxConcurrentCalls()) {
+            logger.warn("Downstream {}.{}: max-connections ({}) + pending-acquire-max-count ({}) = {} does not match max-concurrent-calls ({})",
+                    service, name, settings.getMaxConnections(), settings.getPendingAcquireMaxCount(), poolCapacity, settings.getMaxConcurrentCalls());
+        }
+    }
+
+    // A connection is returned to the pool only once the response body has been read, so callers beyond
+    // max-connections queue until a body completes and give up after pending-acquire-timeout-ms.
+    // Connections are upgraded to cleartext HTTP/2 (h2c) when the service offers it, and stay on HTTP/1.1 otherwise.
+    // With unix-socket-path set, the same pool connects to that socket instead of the base-url's host and port.
+    private ClientHttpConnector clientConnector(String name, DownstreamProperties.Downstream settings) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(service + "." + name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(settings.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(settings.getMaxIdleTimeMs()))
+                .evictInBackground(Duration.ofMillis(settings.getMaxIdleTimeMs()))
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(settings.getResponseTimeoutMs()))
+                .compress(settings.isCompression());
+        if (StringUtils.hasText(settings.getUnixSocketPath())) {
+            if (!Epoll.isAvailable()) {
+                throw new IllegalStateException(String.format("unix-socket-path is set for downstream %s.%s, but Unix sockets need the native epoll transport, which is not available on this host",
+                        service, name), Epoll.unavailabilityCause());
+            }
+            DomainSocketAddress socketAddress = new DomainSocketAddress(settings.getUnixSocketPath());
+            return overSocket(new ReactorClientHttpConnector(httpClient.remoteAddress(() -> socketAddress)));
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    // Reactor Netty only connects to the configured remote address for requests given as a path; an
+    // absolute URI would send it to the base-url's host and port instead.
+    private static ClientHttpConnector overSocket(ClientHttpConnector connector) {
+        return (method, uri, requestCallback) -> {
+            String pathAndQuery = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+            return connector.connect(method, URI.create(pathAndQuery), requestCallback);
+        };
+    }
+
+    // Reactor Netty reports a caller that waited too long for a pooled connection with a TimeoutException;
+    // like a full bulkhead, that means the service is unavailable rather than that the call went wrong.
+    private static ExchangeFilterFunction failWhenNoConnectionIsFree(String name) {
+        return (request, next) -> next.exchange(request)
+                .onErrorMap(error -> error instanceof WebClientRequestException && error.getCause() instanceof TimeoutException,
+                        error -> new DownstreamUnavailableException(String.format("No free connection to %s, not calling %s", name, request.url())));
+    }
+
+    // WebClient registers Smile by default but not CBOR, which create() adds. JSON stays acceptable for
+    // responses, such as error messages, that a service can only send as text.
+    static void applyCodec(HttpHeaders headers, String downstream, String codec) {
+        MediaType mediaType = switch (codec) {
+            case "json" -> MediaType.APPLICATION_JSON;
+            case "smile" -> APPLICATION_SMILE;
+            case "cbor" -> MediaType.APPLICATION_CBOR;
+            default -> throw new IllegalStateException(String.format("Unknown codec %s for downstream %s, expected json, smile or cbor", codec, downstream));
+        };
+        headers.setContentType(mediaType);
+        if (mediaType.equals(MediaType.APPLICATION_JSON)) {
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        } else {
+            headers.setAccept(List.of(mediaType, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Jackson2CborEncoder can only encode single values and refuses encode(), which is what WebClient
+    // calls for request bodies; every body we send is a single value, so encode() delegates to encodeValue().
+    private static class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+            return Mono.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.oms.catalog.webClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Wraps every call to one downstream service with a timeout, a limit on concurrent calls and a
+// circuit breaker. Calls beyond the limit, or made while the circuit is open, fail straight away
+// with DownstreamUnavailableException instead of waiting on a service that is already struggling.
+// Timeouts, connection errors and 5xx responses count as failures; 4xx responses do not.
+public class DownstreamGuard implements ExchangeFilterFunction {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private String downstream;
+
+    private Duration timeout;
+
+    private Semaphore bulkhead;
+
+    private int failureRateThreshold;
+
+    private int minimumCalls;
+
+    private long openDurationNanos;
+
+    private int halfOpenCalls;
+
+    // Outcomes of the most recent calls, oldest overwritten first.
+    private boolean[] window;
+
+    private int windowPosition;
+
+    private int recordedCalls;
+
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+
+    private long openedAtNanos;
+
+    private int halfOpenPermitsIssued;
+
+    private int halfOpenSuccesses;
+
+    private Timer successfulCalls;
+
+    private Timer failedCallsTimer;
+
+    private Counter rejectedByCircuit;
+
+    private Counter rejectedByBulkhead;
+
+    public DownstreamGuard(String downstream, Duration timeout, int maxConcurrentCalls, int failureRateThreshold,
+                           int slidingWindowSize, int minimumCalls, Duration openDuration, int halfOpenCalls,
+                           MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.timeout = timeout;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new boolean[slidingWindowSize];
+
+        Gauge.builder("downstream.circuit.state", this, guard -> guard.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half open")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("downstream.circuit.failure.rate", this, DownstreamGuard::getFailureRate)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("downstream.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        this.successfulCalls = Timer.builder("downstream.calls").tag("downstream", downstream).tag("outcome", "success").register(meterRegistry);
+        this.failedCallsTimer = Timer.builder("downstream.calls").tag("downstream", downstream).tag("outcome", "failure").register(meterRegistry);
+        this.rejectedByCircuit = Counter.builder("downstream.calls.rejected").tag("downstream", downstream).tag("reason", "circuit_open").register(meterRegistry);
+        this.rejectedByBulkhead = Counter.builder("downstream.calls.rejected").tag("downstream", downstream).tag("reason", "bulkhead_full").register(meterRegistry);
+    }
+
+    public static DownstreamGuard fromSettings(String downstream, DownstreamProperties.Downstream settings, MeterRegistry meterRegistry) {
+        return new DownstreamGuard(
+                downstream,
+                Duration.ofMillis(settings.getTimeoutMs()),
+                settings.getMaxConcurrentCalls(),
+                settings.getFailureRateThreshold(),
+                settings.getSlidingWindowSize(),
+                settings.getMinimumCalls(),
+                Duration.ofMillis(settings.getOpenDurationMs()),
+                settings.getHalfOpenCalls(),
+                meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                rejectedByCircuit.increment();
+                return Mono.error(new DownstreamUnavailableException(
+                        String.format("Circuit for %s is open, not calling %s", downstream, request.url()), secondsUntilHalfOpen()));
+            }
+            if (!bulkhead.tryAcquire()) {
+                releasePermission();
+                rejectedByBulkhead.increment();
+                return Mono.error(new DownstreamUnavailableException(String.format("Too many concurrent calls to %s, not calling %s", downstream, request.url())));
+            }
+            GuardedCall call = new GuardedCall();
+            return next.exchange(request)
+                    .timeout(timeout)
+                    .map(response -> guardBody(response, call))
+                    .doOnError(error -> call.finish(false))
+                    .doOnCancel(call::abandonUnanswered);
+        });
+    }
+
+    // A call ends when its body has been read, not when the headers arrive: the permit is held, and the
+    // timeout keeps running, until the body completes. A 5xx only counts as a failure once read as well.
+    private ClientResponse guardBody(ClientResponse response, GuardedCall call) {
+        call.responded = true;
+        boolean serverError = response.statusCode().is5xxServerError();
+        return response.mutate()
+                .body(body -> body
+                        .timeout(Mono.defer(call::untilDeadline), item -> Mono.defer(call::untilDeadline))
+                        .doOnComplete(() -> call.finish(!serverError))
+                        .doOnError(error -> call.finish(false))
+                        .doOnCancel(call::abandon))
+                .build();
+    }
+
+    private class GuardedCall {
+
+        private final long startedAt = System.nanoTime();
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private volatile boolean responded;
+
+        Mono<Long> untilDeadline() {
+            return Mono.delay(Duration.ofNanos(Math.max(0, startedAt + timeout.toNanos() - System.nanoTime())));
+        }
+
+        void finish(boolean success) {
+            if (finished.compareAndSet(false, true)) {
+                bulkhead.release();
+                recordOutcome(success, startedAt);
+            }
+        }
+
+        // Cancelled before an outcome was known: frees the permit without counting the call.
+        void abandon() {
+            if (finished.compareAndSet(false, true)) {
+                bulkhead.release();
+                releasePermission();
+            }
+        }
+
+        // Some subscribers cancel the response Mono after taking its value; the body still ends the call then.
+        void abandonUnanswered() {
+            if (!responded) {
+                abandon();
+            }
+        }
+    }
+
+    private void recordOutcome(boolean success, long startedAt) {
+        (success ? successfulCalls : failedCallsTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (success) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized long secondsUntilHalfOpen() {
+        long remainingNanos = openedAtNanos + openDurationNanos - System.nanoTime();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0 : 100.0 * failedCalls / recordedCalls;
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitsIssued >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitsIssued++;
+        }
+        return true;
+    }
+
+    // Gives back a trial call that ended without an outcome (cancelled, or rejected by the bulkhead).
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > 0) {
+            halfOpenPermitsIssued--;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        recordInWindow(false);
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        recordInWindow(true);
+        if (recordedCalls >= minimumCalls && failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void recordInWindow(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowPosition]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowPosition] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        logger.info(String.format("Circuit for %s moved from %s to %s", downstream, state, newState));
+        state = newState;
+        halfOpenPermitsIssued = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        }
+        if (newState == State.CLOSED) {
+            window = new boolean[window.length];
+            windowPosition = 0;
+            recordedCalls = 0;
+            failedCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.oms.catalog.webClient;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// One entry per downstream service under <service>.downstream.<name>.*; unset values keep the defaults below.
+// Catalog and orders each bind their own instance under their prefix in WebClientConfig.
+public class DownstreamProperties {
+
+    private Map<String, Downstream> downstream = new HashMap<>();
+
+    public Map<String, Downstream> getDownstream() {
+        return downstream;
+    }
+
+    public void setDownstream(Map<String, Downstream> downstream) {
+        this.downstream = downstream;
+    }
+
+    public Downstream get(String name) {
+        Downstream settings = downstream.get(name);
+        if (settings == null || settings.getBaseUrl() == null) {
+            throw new IllegalStateException(String.format("No base-url configured for downstream %s", name));
+        }
+        return settings;
+    }
+
+    public static class Downstream {
+
+        private String baseUrl;
+
+        // When set, calls go over this Unix domain socket instead of TCP; base-url still supplies the Host and path.
+        private String unixSocketPath;
+
+        // Call guard: per-call timeout, bulkhead and circuit breaker.
+        private long timeoutMs = 2000;
+        private int maxConcurrentCalls = 64;
+        private int failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private long openDurationMs = 5000;
+        private int halfOpenCalls = 3;
+
+        // Connections: callers queue for one of max-connections, and give up after pending-acquire-timeout-ms.
+        // The guard already caps calls at max-concurrent-calls, so the queue only needs the difference.
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 14;
+        private long pendingAcquireTimeoutMs = 1000;
+        private long maxIdleTimeMs = 30000;
+        private long connectTimeoutMs = 1000;
+        private long responseTimeoutMs = 2000;
+        private boolean compression = true;
+
+        // Body format for requests and preferred format for responses: json, smile or cbor.
+        private String codec = "json";
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getUnixSocketPath() {
+            return unixSocketPath;
+        }
+
+        public void setUnixSocketPath(String unixSocketPath) {
+            this.unixSocketPath = unixSocketPath;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public long getOpenDurationMs() {
+            return openDurationMs;
+        }
+
+        public void setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public long getPendingAcquireTimeoutMs() {
+            return pendingAcquireTimeoutMs;
+        }
+
+        public void setPendingAcquireTimeoutMs(long pendingAcquireTimeoutMs) {
+            this.pendingAcquireTimeoutMs = pendingAcquireTimeoutMs;
+        }
+
+        public long getMaxIdleTimeMs() {
+            return maxIdleTimeMs;
+        }
+
+        public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+            this.maxIdleTimeMs = maxIdleTimeMs;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getResponseTimeoutMs() {
+            return responseTimeoutMs;
+        }
+
+        public void setResponseTimeoutMs(long responseTimeoutMs) {
+            this.responseTimeoutMs = responseTimeoutMs;
+        }
+
+        public String getCodec() {
+            return codec;
+        }
+
+        public void setCodec(String codec) {
+            this.codec = codec;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+    }
+}
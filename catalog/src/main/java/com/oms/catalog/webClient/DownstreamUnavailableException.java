@@ -0,0 +1,31 @@
+package com.oms.catalog.webClient;
+
+// A call was not made because the downstream's circuit is open or its concurrency limit is reached.
+// Controllers answer 503 with Retry-After set to the seconds the caller should wait.
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private long retryAfterSeconds;
+
+    public DownstreamUnavailableException(String message) {
+        this(message, 1);
+    }
+
+    public DownstreamUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // Services wrap errors on their way to the controller, so the cause chain is searched.
+    public static DownstreamUnavailableException findIn(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DownstreamUnavailableException unavailable) {
+                return unavailable;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.oms.catalog.webClient;
+
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+// The services behind the in-process clients block on JDBC, so calls are moved off the caller's thread
+// the same way a WebClient call would be, and the correlation id travels with them.
+public final class InProcessCalls {
+
+    private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+
+    private InProcessCalls() {
+    }
+
+    public static <T> Mono<T> call(Callable<T> work) {
+        String correlationId = MDC.get(CORRELATION_ID_HEADER);
+        return Mono.fromCallable(() -> {
+            if (correlationId != null) {
+                MDC.put(CORRELATION_ID_HEADER, correlationId);
+            }
+            try {
+                return work.call();
+            } finally {
+                MDC.remove(CORRELATION_ID_HEADER);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,98 @@
+package com.oms.catalog.webClient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.inventory.entity.InventoryItemEntity;
+import com.oms.inventory.service.InventoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Calls the InventoryService of the inventory context running in the same JVM, with the same outcomes
+// InventoryController maps to HTTP statuses. Used by catalog and orders: catalog registers it as its
+// InventoryClient, orders registers it as its own InventoryClient and also calls the stock operations.
+@Service
+@ConditionalOnProperty(name = "catalog.monolith.enabled", havingValue = "true")
+public class InProcessInventoryClient implements InventoryClient {
+
+    private InventoryService inventoryService;
+
+    public InProcessInventoryClient(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @Override
+    public Mono<Void> createInventoryEntry(InventoryItemDTO inventoryItemDTO) {
+        return InProcessCalls.call(() -> {
+            if (inventoryService.findItemById(inventoryItemDTO.getId()) != null) {
+                throw new RuntimeException(String.format("Item with id %s already exists, try updating instead.", inventoryItemDTO.getId()));
+            }
+            return inventoryService.addNewItem(new InventoryItemEntity(inventoryItemDTO.getId(), inventoryItemDTO.getQuantity()));
+        }).then();
+    }
+
+    @Override
+    public Mono<InventoryItemDTO> getInventoryItemById(int id) {
+        return InProcessCalls.call(() -> {
+            InventoryItemEntity item = inventoryService.findItemById(id);
+            if (item == null) {
+                throw new RuntimeException(String.format("Item with id %s not found", id));
+            }
+            return toDTO(item);
+        });
+    }
+
+    @Override
+    public Mono<List<InventoryItemDTO>> getInventoryItemsByIds(List<Integer> ids) {
+        return InProcessCalls.call(() -> inventoryService.findItemsByIds(ids).stream().map(this::toDTO).toList());
+    }
+
+    public Mono<Void> updateInventoryAfterOperation(InventoryItemDTO inventoryItemDTO) {
+        return InProcessCalls.call(() -> {
+            if (inventoryService.updateItem(new InventoryItemEntity(inventoryItemDTO.getId(), inventoryItemDTO.getQuantity())) == null) {
+                throw new RuntimeException(String.format("No item found with id %s. Try creating a new item", inventoryItemDTO.getId()));
+            }
+            return true;
+        }).then();
+    }
+
+    public Mono<Void> reserveStock(int itemId, int quantity) {
+        return reserveStock(itemId, quantity, null);
+    }
+
+    public Mono<Void> reserveStock(int itemId, int quantity, String idempotencyKey) {
+        return InProcessCalls.call(() -> {
+            if (quantity <= 0) {
+                throw new RuntimeException("Quantity to reserve should be at least 1");
+            }
+            if (inventoryService.reserveStock(itemId, quantity, idempotencyKey)) {
+                return true;
+            }
+            if (inventoryService.findItemById(itemId) == null) {
+                throw new RuntimeException(String.format("No item found with id %s", itemId));
+            }
+            throw new OutOfStockException(String.format("Item with id %s not in stock", itemId));
+        }).then();
+    }
+
+    public Mono<Void> releaseStock(int itemId, int quantity) {
+        return releaseStock(itemId, quantity, null);
+    }
+
+    public Mono<Void> releaseStock(int itemId, int quantity, String idempotencyKey) {
+        return InProcessCalls.call(() -> {
+            if (quantity <= 0) {
+                throw new RuntimeException("Quantity to release should be at least 1");
+            }
+            if (!inventoryService.releaseStock(itemId, quantity, idempotencyKey)) {
+                throw new RuntimeException(String.format("No item found with id %s", itemId));
+            }
+            return true;
+        }).then();
+    }
+
+    private InventoryItemDTO toDTO(InventoryItemEntity item) {
+        return new InventoryItemDTO(item.getId(), item.getQuantity());
+    }
+}
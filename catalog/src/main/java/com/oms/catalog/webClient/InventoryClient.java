@@ -0,0 +1,17 @@
+package com.oms.catalog.webClient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Catalog's view of the inventory service: InventoryServiceWebClient over HTTP, or InProcessInventoryClient
+// when all services run in one JVM (catalog.monolith.enabled=true).
+public interface InventoryClient {
+
+    Mono<Void> createInventoryEntry(InventoryItemDTO inventoryItemDTO);
+
+    Mono<InventoryItemDTO> getInventoryItemById(int id);
+
+    Mono<List<InventoryItemDTO>> getInventoryItemsByIds(List<Integer> ids);
+}
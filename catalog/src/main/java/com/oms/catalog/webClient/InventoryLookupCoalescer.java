@@ -0,0 +1,118 @@
+package com.oms.catalog.webClient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Collects single-item inventory lookups for a short window (or until the batch is full) and
+// resolves them with one batch request. Lookups for the same id within a window share a result.
+// Used by catalog and orders; each service registers its own instance over its inventory client.
+public class InventoryLookupCoalescer {
+
+    private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+
+    private Function<List<Integer>, Mono<List<InventoryItemDTO>>> batchLookup;
+
+    private long windowMillis;
+
+    private int maxBatchSize;
+
+    private Scheduler scheduler = Schedulers.parallel();
+
+    private Window window = new Window();
+
+    public InventoryLookupCoalescer(Function<List<Integer>, Mono<List<InventoryItemDTO>>> batchLookup, long windowMillis, int maxBatchSize) {
+        this.batchLookup = batchLookup;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Registers the lookup straight away, so lookups made before anyone subscribes still share a batch.
+    // Completes empty when the inventory service has no item with this id.
+    public Mono<InventoryItemDTO> getInventoryItemById(int id) {
+        Sinks.One<InventoryItemDTO> sink;
+        Window fullWindow = null;
+        synchronized (this) {
+            Window current = window;
+            sink = current.sinks.get(id);
+            if (sink == null) {
+                sink = Sinks.one();
+                current.sinks.put(id, sink);
+                if (current.sinks.size() == 1) {
+                    current.correlationId = MDC.get(CORRELATION_ID_HEADER);
+                    scheduler.schedule(() -> flushExpired(current), windowMillis, TimeUnit.MILLISECONDS);
+                }
+                if (current.sinks.size() >= maxBatchSize) {
+                    fullWindow = current;
+                    window = new Window();
+                }
+            }
+        }
+        if (fullWindow != null) {
+            flush(fullWindow);
+        }
+        return sink.asMono();
+    }
+
+    // The timer belongs to one window; if that window was already flushed because it filled up,
+    // the timer must not cut short the window that replaced it.
+    private void flushExpired(Window expired) {
+        synchronized (this) {
+            if (window != expired) {
+                return;
+            }
+            window = new Window();
+        }
+        flush(expired);
+    }
+
+    // The batch request carries the correlation id of the lookup that opened the window, both when the
+    // timer flushes it on a scheduler thread and when a full batch is flushed on another caller's thread.
+    private void flush(Window batch) {
+        Map<Integer, Sinks.One<InventoryItemDTO>> sinks = batch.sinks;
+        String callerCorrelationId = MDC.get(CORRELATION_ID_HEADER);
+        setCorrelationId(batch.correlationId);
+        try {
+            Mono.defer(() -> batchLookup.apply(new ArrayList<>(sinks.keySet())))
+                    .subscribe(
+                            items -> {
+                                for (InventoryItemDTO item : items) {
+                                    Sinks.One<InventoryItemDTO> sink = sinks.remove(item.getId());
+                                    if (sink != null) {
+                                        sink.tryEmitValue(item);
+                                    }
+                                }
+                                sinks.values().forEach(Sinks.One::tryEmitEmpty);
+                            },
+                            error -> sinks.values().forEach(sink -> sink.tryEmitError(error)),
+                            () -> sinks.values().forEach(Sinks.One::tryEmitEmpty));
+        } finally {
+            setCorrelationId(callerCorrelationId);
+        }
+    }
+
+    private static void setCorrelationId(String correlationId) {
+        if (correlationId == null) {
+            MDC.remove(CORRELATION_ID_HEADER);
+        } else {
+            MDC.put(CORRELATION_ID_HEADER, correlationId);
+        }
+    }
+
+    private static class Window {
+
+        private Map<Integer, Sinks.One<InventoryItemDTO>> sinks = new HashMap<>();
+
+        private String correlationId;
+    }
+}
@@ -1,37 +1,35 @@
 package com.oms.catalog.webClient;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oms.inventory.dto.InventoryItemDTO;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Service
-public class InventoryServiceWebClient {
+@ConditionalOnProperty(name = "catalog.monolith.enabled", havingValue = "false", matchIfMissing = true)
+public class InventoryServiceWebClient implements InventoryClient {
 
     private WebClient webClient;
 
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
 
-    private ObjectMapper om = new ObjectMapper();
-
     public InventoryServiceWebClient(@Qualifier("inventoryService") WebClient webClient) {
         this.webClient = webClient;
     }
 
-    public Mono<Void> createInventoryEntry(InventoryItemDTO inventoryItemDTO) throws JsonProcessingException {
+    @Override
+    public Mono<Void> createInventoryEntry(InventoryItemDTO inventoryItemDTO) {
         String correlationId = MDC.get(CORRELATION_ID_HEADER);
 
         return webClient.post()
                 .uri("/api/v1/inventory/items")
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .header(CORRELATION_ID_HEADER, correlationId)
-                .bodyValue(om.writeValueAsString(inventoryItemDTO))
+                .bodyValue(inventoryItemDTO)
                 .retrieve()
                 .toBodilessEntity()
                 .flatMap(resp -> {
@@ -43,12 +41,12 @@ public class InventoryServiceWebClient {
                 });
     }
 
+    @Override
     public Mono<InventoryItemDTO> getInventoryItemById(int id) {
         String uri = String.format("/api/v1/inventory/items/%s", id);
         String correlationId = MDC.get(CORRELATION_ID_HEADER);
         return webClient.get()
                 .uri(uri)
-                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .header(CORRELATION_ID_HEADER, correlationId)
                 .retrieve().toEntity(InventoryItemDTO.class)
                 .flatMap(resp -> {
@@ -60,4 +58,22 @@ public class InventoryServiceWebClient {
                     }
                 });
     }
+
+    @Override
+    public Mono<List<InventoryItemDTO>> getInventoryItemsByIds(List<Integer> ids) {
+        String correlationId = MDC.get(CORRELATION_ID_HEADER);
+        return webClient.post()
+                .uri("/api/v1/inventory/items/batch")
+                .header(CORRELATION_ID_HEADER, correlationId)
+                .bodyValue(ids)
+                .retrieve().toEntityList(InventoryItemDTO.class)
+                .flatMap(resp -> {
+                    if (resp.getStatusCode().is2xxSuccessful()) {
+                        assert resp.getBody() != null;
+                        return Mono.just(resp.getBody());
+                    } else {
+                        return Mono.error(new RuntimeException(String.format("Error response status %s and message %s", resp.getStatusCode(), resp.getBody())));
+                    }
+                });
+    }
 }
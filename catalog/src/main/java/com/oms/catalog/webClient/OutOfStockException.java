@@ -0,0 +1,9 @@
+package com.oms.catalog.webClient;
+
+// The inventory service refused a reservation because the item does not have enough stock.
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
@@ -1,21 +1,37 @@
 package com.oms.catalog.webClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean
+    @ConfigurationProperties(prefix = "catalog")
+    public DownstreamProperties downstreamProperties() {
+        return new DownstreamProperties();
+    }
+
+    @Bean
+    public DownstreamClientFactory downstreamClientFactory(MeterRegistry meterRegistry) {
+        return new DownstreamClientFactory("catalog", meterRegistry);
+    }
+
     @Bean
     @Qualifier("inventoryService")
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder
-                .baseUrl("http://localhost:8081")
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+    public WebClient webClient(WebClient.Builder builder, DownstreamProperties properties, DownstreamClientFactory factory) {
+        return factory.create(builder, "inventory", properties.get("inventory"));
+    }
+
+    @Bean
+    public InventoryLookupCoalescer inventoryLookupCoalescer(InventoryClient inventoryClient,
+                                                             @Value("${catalog.inventory-coalescer.window-ms:2}") long windowMillis,
+                                                             @Value("${catalog.inventory-coalescer.max-batch-size:500}") int maxBatchSize) {
+        return new InventoryLookupCoalescer(inventoryClient::getInventoryItemsByIds, windowMillis, maxBatchSize);
     }
 }
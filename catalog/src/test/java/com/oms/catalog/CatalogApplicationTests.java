@@ -1,15 +1,28 @@
 package com.oms.catalog;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.Duration;
+
 @TestPropertySource(locations = "classpath:/application-test.properties")
 @SpringBootTest
 class CatalogApplicationTests {
 
+	@Autowired
+	private WebMvcProperties webMvcProperties;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void allowsTheExportLongerThanTheContainerAsyncTimeout() {
+		Assertions.assertEquals(Duration.ofMinutes(10), webMvcProperties.getAsync().getRequestTimeout());
+	}
+
 }
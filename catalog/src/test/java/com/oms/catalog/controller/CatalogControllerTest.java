@@ -3,8 +3,10 @@ package com.oms.catalog.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.dto.CatalogPageDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
 import com.oms.catalog.service.CatalogService;
+import com.oms.catalog.webClient.DownstreamUnavailableException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -13,13 +15,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -54,6 +63,82 @@ public class CatalogControllerTest {
                 .andExpect(jsonPath("$[1].name").value("item2"));
     }
 
+    @Test
+    void shouldReturnPageOfItemsWithNextCursor() throws Exception {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity(
+                "item1",
+                12.20,
+                "category1"
+        );
+        itemEntityOne.setID(11);
+        Mockito.doReturn(new CatalogPageDTO(Arrays.asList(itemEntityOne), 11)).when(catalogService).getCatalogItemsPage(10, 1);
+
+        mockMvc.perform(get("/api/v1/catalog/items?after=10&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("item1"))
+                .andExpect(jsonPath("$.nextCursor").value(11));
+    }
+
+    @Test
+    void shouldRejectPageSizesOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/items?limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/catalog/items?limit=501")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamAllItemsAsNdjson() throws Exception {
+        CatalogDTO itemOne = new CatalogDTO(1, "item1", 12.20, "category1");
+        CatalogDTO itemTwo = new CatalogDTO(2, "item2", 13.20, "category1");
+        itemTwo.setAvailableStock(5);
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<CatalogDTO>> chunkConsumer = invocation.getArgument(0);
+            chunkConsumer.accept(Arrays.asList(itemOne, itemTwo));
+            return null;
+        }).when(catalogService).streamAllCatalogItems(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/catalog/items/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(itemOne) + "\n" + objectMapper.writeValueAsString(itemTwo) + "\n"));
+    }
+
+    @Test
+    void shouldStreamEveryChunkOfTheExport() throws Exception {
+        CatalogDTO itemOne = new CatalogDTO(1, "item1", 12.20, "category1");
+        CatalogDTO itemTwo = new CatalogDTO(2, "item2", 13.20, "category1");
+        CatalogDTO itemThree = new CatalogDTO(3, "item3", 14.20, "category2");
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<CatalogDTO>> chunkConsumer = invocation.getArgument(0);
+            chunkConsumer.accept(Arrays.asList(itemOne, itemTwo));
+            chunkConsumer.accept(Arrays.asList(itemThree));
+            return null;
+        }).when(catalogService).streamAllCatalogItems(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/catalog/items/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(itemOne) + "\n"
+                        + objectMapper.writeValueAsString(itemTwo) + "\n"
+                        + objectMapper.writeValueAsString(itemThree) + "\n"));
+    }
+
+    @Test
+    void shouldReturn503WithRetryAfterIfInventoryIsUnavailable() throws Exception {
+        Mockito.doThrow(new DownstreamUnavailableException("Too many concurrent calls to inventory")).when(catalogService).getItemById(1);
+        mockMvc.perform(get("/api/v1/catalog/items/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void shouldThrowServerSideErrorIfFetchAllFails() throws Exception {
         Mockito.doThrow(RuntimeException.class).when(catalogService).getAllCatalogItems();
@@ -95,6 +180,36 @@ public class CatalogControllerTest {
                 .andExpect(status().is5xxServerError());
     }
 
+    @Test
+    void shouldReturnItemsForABatchOfIds() throws Exception {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity(
+                "item1",
+                12.20,
+                "category1"
+        );
+        itemEntityOne.setID(1);
+        Mockito.doReturn(Arrays.asList(itemEntityOne)).when(catalogService).getItemsByIds(Arrays.asList(1, 2));
+
+        mockMvc.perform(post("/api/v1/catalog/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].pricePerUnit").value(12.20));
+    }
+
+    @Test
+    void shouldRejectBatchesOverTheLimit() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+        mockMvc.perform(post("/api/v1/catalog/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldGetOneItem() throws Exception {
         CatalogItemEntity itemEntityOne = new CatalogItemEntity(
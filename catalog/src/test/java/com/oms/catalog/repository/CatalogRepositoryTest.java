@@ -1,15 +1,19 @@
 package com.oms.catalog.repository;
 
 
+import com.oms.catalog.dto.CatalogDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @TestPropertySource(locations = "classpath:/application-test.properties")
 @SpringBootTest
@@ -238,4 +242,34 @@ public class CatalogRepositoryTest {
         catalogRepository.deleteAllByCategory("category1");
         Assertions.assertEquals(0, catalogRepository.findAllByCategory("category1").size());
     }
+
+    @Test
+    void findsItemsAfterTheGivenIdInIdOrder() {
+        CatalogItemEntity addedItem1 = catalogRepository.save(new CatalogItemEntity("item1", 12.20, "category1"));
+        CatalogItemEntity addedItem2 = catalogRepository.save(new CatalogItemEntity("item2", 16.0, "category2"));
+        CatalogItemEntity addedItem3 = catalogRepository.save(new CatalogItemEntity("item3", 14.5, "category2"));
+
+        List<CatalogItemEntity> page = catalogRepository.findByIdGreaterThanOrderByIdAsc(addedItem1.getId(), Limit.of(1));
+
+        Assertions.assertEquals(1, page.size());
+        Assertions.assertEquals(addedItem2.getId(), page.get(0).getId());
+
+        page = catalogRepository.findByIdGreaterThanOrderByIdAsc(addedItem2.getId(), Limit.of(10));
+        Assertions.assertEquals(1, page.size());
+        Assertions.assertEquals(addedItem3.getId(), page.get(0).getId());
+    }
+
+    @Test
+    @Transactional
+    void streamsAllItemsAsDTOsInIdOrder() {
+        CatalogItemEntity addedItem1 = catalogRepository.save(new CatalogItemEntity("item1", 12.20, "category1"));
+        CatalogItemEntity addedItem2 = catalogRepository.save(new CatalogItemEntity("item2", 16.0, "category2"));
+
+        try (Stream<CatalogDTO> rows = catalogRepository.streamAllOrderById()) {
+            List<CatalogDTO> items = rows.toList();
+            Assertions.assertEquals(2, items.size());
+            Assertions.assertEquals(addedItem1.getId(), items.get(0).getId());
+            Assertions.assertEquals("item2", items.get(1).getName());
+        }
+    }
 }
@@ -1,16 +1,23 @@
 package com.oms.catalog.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.dto.CatalogPageDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
 import com.oms.catalog.repository.CatalogRepository;
+import com.oms.catalog.webClient.InventoryLookupCoalescer;
 import com.oms.catalog.webClient.InventoryServiceWebClient;
 import com.oms.inventory.dto.InventoryItemDTO;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
@@ -21,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
 
@@ -33,13 +41,19 @@ public class CatalogServiceTest {
 
     private CatalogService catalogService;
 
+    private Cache<Integer, CatalogItemEntity> catalogItemCache;
+
     @MockitoBean
     private InventoryServiceWebClient inventoryServiceWebClient;
 
+    @MockitoBean
+    private InventoryLookupCoalescer inventoryLookupCoalescer;
+
 
     @BeforeEach
     void setup() {
-        this.catalogService = new CatalogService(catalogRepository, inventoryServiceWebClient);
+        this.catalogItemCache = Caffeine.newBuilder().maximumSize(100).build();
+        this.catalogService = new CatalogService(catalogRepository, inventoryServiceWebClient, inventoryLookupCoalescer, catalogItemCache);
     }
 
     @Test
@@ -102,12 +116,101 @@ public class CatalogServiceTest {
                 "category2"
         );
 
-        InventoryItemDTO inventoryItemDTO = new InventoryItemDTO(1, 10);
+        itemOne.setID(1);
+        itemTwo.setID(2);
+        itemThree.setID(3);
+
+        List<InventoryItemDTO> inventoryItems = Arrays.asList(
+                new InventoryItemDTO(1, 10),
+                new InventoryItemDTO(2, 20),
+                new InventoryItemDTO(3, 30)
+        );
 
         List<CatalogItemEntity> allItems = Arrays.asList(itemOne, itemTwo, itemThree);
         Mockito.doReturn(allItems).when(catalogRepository).findAll();
-        Mockito.doReturn(Mono.just(inventoryItemDTO)).when(inventoryServiceWebClient).getInventoryItemById(any(Integer.class));
-        Assertions.assertEquals(3, catalogService.getAllCatalogItems().size());
+        Mockito.doReturn(Mono.just(inventoryItems)).when(inventoryServiceWebClient).getInventoryItemsByIds(any());
+        List<CatalogItemEntity> returnedItems = catalogService.getAllCatalogItems();
+        Assertions.assertEquals(3, returnedItems.size());
+        Assertions.assertEquals(20, returnedItems.get(1).getAvailableStock());
+        Mockito.verify(inventoryLookupCoalescer, Mockito.never()).getInventoryItemById(any(Integer.class));
+    }
+
+    @Test
+    void shouldFetchStockInChunksForLargeCatalogs() {
+        List<CatalogItemEntity> allItems = new ArrayList<>();
+        for (int id = 1; id <= 1200; id++) {
+            CatalogItemEntity item = new CatalogItemEntity("item" + id, 10.0, "category1");
+            item.setID(id);
+            allItems.add(item);
+        }
+        Mockito.doReturn(allItems).when(catalogRepository).findAll();
+        Mockito.doAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return Mono.just(ids.stream().map(id -> new InventoryItemDTO(id, id * 2)).toList());
+        }).when(inventoryServiceWebClient).getInventoryItemsByIds(any());
+
+        List<CatalogItemEntity> returnedItems = catalogService.getAllCatalogItems();
+
+        Assertions.assertEquals(2400, returnedItems.get(1199).getAvailableStock());
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(3)).getInventoryItemsByIds(any());
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreItemsExist() {
+        CatalogItemEntity itemOne = new CatalogItemEntity("item1", 12.20, "category1");
+        CatalogItemEntity itemTwo = new CatalogItemEntity("item2", 16.00, "category2");
+        CatalogItemEntity itemThree = new CatalogItemEntity("item3", 14.50, "category2");
+        itemOne.setID(4);
+        itemTwo.setID(5);
+        itemThree.setID(6);
+
+        Mockito.doReturn(Arrays.asList(itemOne, itemTwo, itemThree))
+                .when(catalogRepository).findByIdGreaterThanOrderByIdAsc(3, Limit.of(3));
+        Mockito.doReturn(Mono.just(Arrays.asList(new InventoryItemDTO(4, 1), new InventoryItemDTO(5, 2))))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(Arrays.asList(4, 5));
+
+        CatalogPageDTO page = catalogService.getCatalogItemsPage(3, 2);
+
+        Assertions.assertEquals(2, page.getItems().size());
+        Assertions.assertEquals(5, page.getNextCursor());
+        Assertions.assertEquals(2, page.getItems().get(1).getAvailableStock());
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutNextCursor() {
+        CatalogItemEntity itemOne = new CatalogItemEntity("item1", 12.20, "category1");
+        itemOne.setID(4);
+
+        Mockito.doReturn(Arrays.asList(itemOne))
+                .when(catalogRepository).findByIdGreaterThanOrderByIdAsc(3, Limit.of(3));
+        Mockito.doReturn(Mono.just(Arrays.asList(new InventoryItemDTO(4, 1))))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(Arrays.asList(4));
+
+        CatalogPageDTO page = catalogService.getCatalogItemsPage(3, 2);
+
+        Assertions.assertEquals(1, page.getItems().size());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldStreamAllItemsInChunksWithStock() {
+        Mockito.doReturn(IntStream.rangeClosed(1, 501).mapToObj(id -> new CatalogDTO(id, "item" + id, 10.0, "category1")))
+                .when(catalogRepository).streamAllOrderById();
+        Mockito.doAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return Mono.just(ids.stream().map(id -> new InventoryItemDTO(id, 7)).toList());
+        }).when(inventoryServiceWebClient).getInventoryItemsByIds(any());
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<CatalogDTO> streamedItems = new ArrayList<>();
+        catalogService.streamAllCatalogItems(chunk -> {
+            chunkSizes.add(chunk.size());
+            streamedItems.addAll(chunk);
+        });
+
+        Assertions.assertEquals(Arrays.asList(500, 1), chunkSizes);
+        Assertions.assertEquals(501, streamedItems.get(500).getId());
+        Assertions.assertEquals(7, streamedItems.get(500).getAvailableStock());
     }
 
     @Test
@@ -124,7 +227,7 @@ public class CatalogServiceTest {
         Mockito.doReturn(itemEntityOne).when(catalogRepository).save(any(CatalogItemEntity.class));
         Mockito.doReturn(Optional.of(itemEntityOne)).when(catalogRepository).findById(1);
         Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).createInventoryEntry(any(InventoryItemDTO.class));
-        Mockito.doReturn(Mono.just(inventoryItemDTO)).when(inventoryServiceWebClient).getInventoryItemById(1);
+        Mockito.doReturn(Mono.just(inventoryItemDTO)).when(inventoryLookupCoalescer).getInventoryItemById(1);
 
 
         CatalogItemEntity addedItemOne = catalogService.addNewItem(itemEntityOne);
@@ -134,6 +237,77 @@ public class CatalogServiceTest {
         Assertions.assertEquals(itemEntityOne.getName(), foundItem.getName());
     }
 
+    @Test
+    void shouldServeRepeatedLookupsFromTheCache() {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity("item1", 12.20, "category1");
+        itemEntityOne.setID(1);
+        Mockito.doReturn(Optional.of(itemEntityOne)).when(catalogRepository).findById(1);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryLookupCoalescer).getInventoryItemById(1);
+
+        CatalogItemEntity firstLookup = catalogService.getItemById(1);
+        CatalogItemEntity secondLookup = catalogService.getItemById(1);
+
+        Assertions.assertEquals("item1", secondLookup.getName());
+        Assertions.assertEquals(10, secondLookup.getAvailableStock());
+        Assertions.assertNotSame(firstLookup, secondLookup);
+        Mockito.verify(catalogRepository, Mockito.times(1)).findById(1);
+    }
+
+    @Test
+    void shouldLoadOnlyUncachedItemsForABatchOfIds() {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity("item1", 12.20, "category1");
+        itemEntityOne.setID(1);
+        CatalogItemEntity itemEntityTwo = new CatalogItemEntity("item2", 13.20, "category1");
+        itemEntityTwo.setID(2);
+        catalogItemCache.put(1, itemEntityOne);
+        Mockito.doReturn(Arrays.asList(itemEntityTwo)).when(catalogRepository).findAllById(any());
+
+        List<CatalogItemEntity> foundItems = catalogService.getItemsByIds(Arrays.asList(1, 2, 3));
+
+        Assertions.assertEquals(2, foundItems.size());
+        ArgumentCaptor<Iterable<Integer>> loadedIds = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(catalogRepository).findAllById(loadedIds.capture());
+        List<Integer> loaded = new ArrayList<>();
+        loadedIds.getValue().forEach(loaded::add);
+        Assertions.assertFalse(loaded.contains(1));
+        Assertions.assertTrue(loaded.containsAll(Arrays.asList(2, 3)));
+    }
+
+    @Test
+    void shouldNotCacheMissingItems() {
+        Mockito.doReturn(Optional.empty()).when(catalogRepository).findById(2);
+        catalogService.getItemById(2);
+        catalogService.getItemById(2);
+        Mockito.verify(catalogRepository, Mockito.times(2)).findById(2);
+    }
+
+    @Test
+    void shouldInvalidateCachedItemOnUpdate() {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity("item1", 12.20, "category1");
+        itemEntityOne.setID(1);
+        Mockito.doReturn(Optional.of(itemEntityOne)).when(catalogRepository).findById(1);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryLookupCoalescer).getInventoryItemById(1);
+        Mockito.doReturn(itemEntityOne).when(catalogRepository).save(any(CatalogItemEntity.class));
+
+        catalogService.getItemById(1);
+        catalogService.updateItem(1, new CatalogItemEntity("item1", 15.00, "category1"));
+
+        Assertions.assertNull(catalogItemCache.getIfPresent(1));
+    }
+
+    @Test
+    void shouldInvalidateCachedItemsOnCategoryDeletion() {
+        CatalogItemEntity itemEntityOne = new CatalogItemEntity("item1", 12.20, "category1");
+        itemEntityOne.setID(1);
+        catalogItemCache.put(1, itemEntityOne);
+        Mockito.doReturn(Arrays.asList(itemEntityOne)).when(catalogRepository).findAllByCategory("category1");
+        Mockito.doNothing().when(catalogRepository).deleteAllByCategory("category1");
+
+        catalogService.deleteAllItemsOfCategory("category1");
+
+        Assertions.assertNull(catalogItemCache.getIfPresent(1));
+    }
+
     @Test
     void shoudlReturnNullIfNoElementWithIdExists() {
         Mockito.doReturn(Optional.empty()).when(catalogRepository).findById(2);
@@ -154,8 +328,13 @@ public class CatalogServiceTest {
                 "category1"
         );
 
+        itemEntityOne.setID(1);
+        itemEntityTwo.setID(2);
+
         Mockito.doReturn(Arrays.asList(itemEntityOne, itemEntityTwo))
                 .when(catalogRepository).findAllByCategory("category1");
+        Mockito.doReturn(Mono.just(Arrays.asList(new InventoryItemDTO(1, 10), new InventoryItemDTO(2, 5))))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(any());
 
         List<CatalogItemEntity> items = catalogService.getItemsByCategory("category1");
 
@@ -163,6 +342,7 @@ public class CatalogServiceTest {
 
         Assertions.assertEquals("category1", items.get(0).getCategory());
         Assertions.assertEquals("category1", items.get(0).getCategory());
+        Assertions.assertEquals(5, items.get(1).getAvailableStock());
     }
 
     @Test
@@ -180,7 +360,7 @@ public class CatalogServiceTest {
                 12.20,
                 "category1"
         );
-        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryServiceWebClient).getInventoryItemById(1);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryLookupCoalescer).getInventoryItemById(1);
         Mockito.doReturn(Optional.of(itemEntityOne)).when(catalogRepository).findById(1);
         Mockito.doNothing().when(catalogRepository).deleteById(1);
         Boolean itemDeleted = catalogService.deleteById(1);
@@ -224,7 +404,7 @@ public class CatalogServiceTest {
         itemEntityOne.setID(1);
         int id = 1;
         Mockito.doReturn(Optional.of(itemEntityOne)).when(catalogRepository).findById(id);
-        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryServiceWebClient).getInventoryItemById(1);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(1, 10))).when(inventoryLookupCoalescer).getInventoryItemById(1);
         Mockito.doReturn(itemEntityOne).when(catalogRepository).save(any(CatalogItemEntity.class));
         CatalogItemEntity returnedItem = catalogService.updateItem(id, itemEntityOne);
         Assertions.assertEquals(id, returnedItem.getId());
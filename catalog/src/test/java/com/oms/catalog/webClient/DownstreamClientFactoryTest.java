@@ -0,0 +1,190 @@
+package com.oms.catalog.webClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class DownstreamClientFactoryTest {
+
+    private DownstreamClientFactory factory = new DownstreamClientFactory("catalog", new SimpleMeterRegistry());
+
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        factory.destroy();
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    // Sends the headers straight away and the body only after the given delay.
+    private void startServer(Duration bodyDelay) {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/api/v1/items", (request, response) -> response.sendHeaders()
+                        .sendString(Mono.just("[]").delayElement(bodyDelay))))
+                .bindNow();
+    }
+
+    private WebClient client(int maxConnections, int pendingAcquireMaxCount, long pendingAcquireTimeoutMs) {
+        DownstreamProperties.Downstream settings = new DownstreamProperties.Downstream();
+        settings.setBaseUrl("http://localhost:" + server.port());
+        settings.setMaxConcurrentCalls(maxConnections + pendingAcquireMaxCount);
+        settings.setMaxConnections(maxConnections);
+        settings.setPendingAcquireMaxCount(pendingAcquireMaxCount);
+        settings.setPendingAcquireTimeoutMs(pendingAcquireTimeoutMs);
+        return factory.create(WebClient.builder(), "inventory", settings);
+    }
+
+    private Mono<String> getItems(WebClient client) {
+        return client.get().uri("/api/v1/items").retrieve().bodyToMono(String.class);
+    }
+
+    @Test
+    void keepsTheConnectionUntilTheBodyHasBeenRead() {
+        startServer(Duration.ofMillis(1000));
+        WebClient client = client(1, 1, 200);
+
+        StepVerifier.create(getItems(client))
+                .then(() -> StepVerifier.create(getItems(client))
+                        .expectError(DownstreamUnavailableException.class)
+                        .verify(Duration.ofSeconds(5)))
+                .expectNext("[]")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void queuedCallGetsTheConnectionOnceTheBodyCompletes() {
+        startServer(Duration.ofMillis(200));
+        WebClient client = client(1, 1, 2000);
+
+        StepVerifier.create(Mono.zip(getItems(client), getItems(client)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void callsTheServiceOverItsUnixSocketWhenOneIsConfigured(@TempDir Path tempDir) throws Exception {
+        Path socketPath = tempDir.resolve("inventory.sock");
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(tempDir.toString());
+        Connector unixConnector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+        unixConnector.setProperty("unixDomainSocketPath", socketPath.toString());
+        tomcat.setConnector(unixConnector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "items", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("[{\"id\":" + request.getParameter("ids") + "}]");
+            }
+        });
+        context.addServletMappingDecoded("/*", "items");
+        tomcat.start();
+        try {
+            DownstreamProperties.Downstream settings = new DownstreamProperties.Downstream();
+            settings.setBaseUrl("http://localhost");
+            settings.setUnixSocketPath(socketPath.toString());
+            WebClient client = factory.create(WebClient.builder(), "inventory", settings);
+
+            StepVerifier.create(client.get().uri("/api/v1/items?ids=7").retrieve().bodyToMono(String.class))
+                    .expectNext("[{\"id\":7}]")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @Test
+    void talksCleartextHttp2ToServicesThatOfferIt(@TempDir Path tempDir) throws Exception {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(tempDir.toString());
+        Connector connector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+        connector.setPort(0);
+        connector.addUpgradeProtocol(new Http2Protocol());
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "items", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write(request.getProtocol());
+            }
+
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write(request.getProtocol() + " " + new String(request.getInputStream().readAllBytes()));
+            }
+        });
+        context.addServletMappingDecoded("/*", "items");
+        tomcat.start();
+        try {
+            DownstreamProperties.Downstream settings = new DownstreamProperties.Downstream();
+            settings.setBaseUrl("http://localhost:" + connector.getLocalPort());
+            WebClient client = factory.create(WebClient.builder(), "inventory", settings);
+
+            StepVerifier.create(client.get().uri("/api/v1/items").retrieve().bodyToMono(String.class))
+                    .expectNext("HTTP/2.0")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            StepVerifier.create(client.post().uri("/api/v1/items/batch").bodyValue(List.of(7)).retrieve().bodyToMono(String.class))
+                    .expectNext("HTTP/2.0 [7]")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @Test
+    void sendsAndAcceptsJsonByDefault() {
+        HttpHeaders headers = new HttpHeaders();
+
+        DownstreamClientFactory.applyCodec(headers, "inventory", "json");
+
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, headers.getContentType());
+        Assertions.assertEquals(List.of(MediaType.APPLICATION_JSON), headers.getAccept());
+    }
+
+    @Test
+    void prefersCborButStillAcceptsJson() {
+        HttpHeaders headers = new HttpHeaders();
+
+        DownstreamClientFactory.applyCodec(headers, "inventory", "cbor");
+
+        Assertions.assertEquals(MediaType.APPLICATION_CBOR, headers.getContentType());
+        Assertions.assertEquals(List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON), headers.getAccept());
+    }
+
+    @Test
+    void rejectsUnknownCodec() {
+        Assertions.assertThrows(IllegalStateException.class, () -> DownstreamClientFactory.applyCodec(new HttpHeaders(), "inventory", "xml"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.oms.catalog.webClient;
+
+import com.oms.catalog.entity.CatalogItemEntity;
+import com.oms.catalog.repository.CatalogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+// Sends a batch lookup to the running catalog service in each binary codec and reads the items back,
+// so both the WebClient codecs and the Spring MVC converters on the other end are exercised.
+@TestPropertySource(locations = "classpath:/application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class DownstreamCodecRoundTripTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DownstreamClientFactory downstreamClientFactory;
+
+    @Autowired
+    private CatalogRepository catalogRepository;
+
+    @AfterEach
+    void tearDown() {
+        catalogRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smile", "cbor"})
+    void exchangesItemsWithTheCatalogInTheConfiguredCodec(String codec) {
+        CatalogItemEntity saved = catalogRepository.save(new CatalogItemEntity("mug", 12.0, "kitchen"));
+        DownstreamProperties.Downstream settings = new DownstreamProperties.Downstream();
+        settings.setBaseUrl("http://localhost:" + port);
+        settings.setCodec(codec);
+        WebClient client = downstreamClientFactory.create(WebClient.builder(), "catalog", settings);
+
+        ResponseEntity<List<CatalogItemEntity>> response = client.post()
+                .uri("/api/v1/catalog/items/batch")
+                .bodyValue(List.of(saved.getId()))
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<CatalogItemEntity>>() {})
+                .block(Duration.ofSeconds(5));
+
+        HttpHeaders headers = new HttpHeaders();
+        DownstreamClientFactory.applyCodec(headers, "catalog", codec);
+        Assertions.assertEquals(headers.getContentType(), response.getHeaders().getContentType());
+        Assertions.assertEquals(1, response.getBody().size());
+        Assertions.assertEquals(saved.getId(), response.getBody().get(0).getId());
+        Assertions.assertEquals("mug", response.getBody().get(0).getName());
+        Assertions.assertEquals(12.0, response.getBody().get(0).getPricePerUnit());
+    }
+}
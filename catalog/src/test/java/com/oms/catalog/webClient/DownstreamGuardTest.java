@@ -0,0 +1,138 @@
+package com.oms.catalog.webClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DownstreamGuardTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/api/v1/items/1")).build();
+
+    private DownstreamGuard guard(Duration timeout, int maxConcurrentCalls, Duration openDuration) {
+        return new DownstreamGuard("inventory", timeout, maxConcurrentCalls, 50, 4, 4, openDuration, 1, meterRegistry);
+    }
+
+    private ExchangeFunction respondingWith(HttpStatus status, AtomicInteger calls) {
+        return request -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(status).build());
+        };
+    }
+
+    // A call only ends once its body has been read, as WebClient does for every response.
+    private void call(DownstreamGuard guard, ExchangeFunction next) {
+        guard.filter(request, next).flatMap(ClientResponse::releaseBody).block();
+    }
+
+    @Test
+    void opensAfterFailureRateIsReachedAndFailsFast() {
+        DownstreamGuard guard = guard(Duration.ofSeconds(1), 10, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeFunction failing = respondingWith(HttpStatus.INTERNAL_SERVER_ERROR, calls);
+
+        call(guard, respondingWith(HttpStatus.OK, calls));
+        call(guard, respondingWith(HttpStatus.OK, calls));
+        call(guard, failing);
+        Assertions.assertEquals(DownstreamGuard.State.CLOSED, guard.getState());
+        call(guard, failing);
+
+        Assertions.assertEquals(DownstreamGuard.State.OPEN, guard.getState());
+        StepVerifier.create(guard.filter(request, failing))
+                .expectErrorSatisfies(error -> Assertions.assertEquals(60, ((DownstreamUnavailableException) error).getRetryAfterSeconds()))
+                .verify();
+        Assertions.assertEquals(4, calls.get());
+        Assertions.assertEquals(1.0, meterRegistry.get("downstream.circuit.state").tag("downstream", "inventory").gauge().value());
+        Assertions.assertEquals(1, meterRegistry.get("downstream.calls.rejected").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void doesNotCountClientErrorsAsFailures() {
+        DownstreamGuard guard = guard(Duration.ofSeconds(1), 10, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 6; i++) {
+            call(guard, respondingWith(HttpStatus.CONFLICT, calls));
+        }
+
+        Assertions.assertEquals(DownstreamGuard.State.CLOSED, guard.getState());
+        Assertions.assertEquals(0.0, guard.getFailureRate());
+    }
+
+    @Test
+    void closesAgainAfterSuccessfulTrialCall() throws InterruptedException {
+        DownstreamGuard guard = guard(Duration.ofSeconds(1), 10, Duration.ofMillis(50));
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            call(guard, respondingWith(HttpStatus.SERVICE_UNAVAILABLE, calls));
+        }
+        Assertions.assertEquals(DownstreamGuard.State.OPEN, guard.getState());
+
+        Thread.sleep(100);
+        Assertions.assertEquals(DownstreamGuard.State.HALF_OPEN, guard.getState());
+        call(guard, respondingWith(HttpStatus.OK, calls));
+
+        Assertions.assertEquals(DownstreamGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void timesOutSlowCalls() {
+        DownstreamGuard guard = guard(Duration.ofMillis(50), 10, Duration.ofMinutes(1));
+
+        StepVerifier.create(guard.filter(request, request -> Mono.never()))
+                .verifyError(TimeoutException.class);
+        Assertions.assertEquals(1, meterRegistry.get("downstream.calls").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void rejectsCallsBeyondTheConcurrencyLimit() {
+        DownstreamGuard guard = guard(Duration.ofSeconds(10), 1, Duration.ofMinutes(1));
+
+        guard.filter(request, request -> Mono.never()).subscribe();
+
+        StepVerifier.create(guard.filter(request, respondingWith(HttpStatus.OK, new AtomicInteger())))
+                .verifyError(DownstreamUnavailableException.class);
+        Assertions.assertEquals(0.0, meterRegistry.get("downstream.bulkhead.available").gauge().value());
+    }
+
+    @Test
+    void holdsTheConcurrencyPermitUntilTheBodyIsRead() {
+        DownstreamGuard guard = guard(Duration.ofSeconds(10), 1, Duration.ofMinutes(1));
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ClientResponse response = guard.filter(request, request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(body.asFlux()).build())).block();
+
+        StepVerifier.create(guard.filter(request, respondingWith(HttpStatus.OK, new AtomicInteger())))
+                .verifyError(DownstreamUnavailableException.class);
+        response.releaseBody().subscribe();
+        body.tryEmitComplete();
+
+        Assertions.assertEquals(1.0, meterRegistry.get("downstream.bulkhead.available").gauge().value());
+        Assertions.assertEquals(1, meterRegistry.get("downstream.calls").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void timesOutBodiesThatDoNotCompleteWithinTheCallTimeout() {
+        DownstreamGuard guard = guard(Duration.ofMillis(100), 10, Duration.ofMinutes(1));
+        ClientResponse response = guard.filter(request, request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(Flux.never()).build())).block();
+
+        StepVerifier.create(response.bodyToMono(String.class)).verifyError(TimeoutException.class);
+        Assertions.assertEquals(1, meterRegistry.get("downstream.calls").tag("outcome", "failure").timer().count());
+        Assertions.assertEquals(10.0, meterRegistry.get("downstream.bulkhead.available").gauge().value());
+    }
+}
@@ -0,0 +1,67 @@
+package com.oms.catalog.webClient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.inventory.entity.InventoryItemEntity;
+import com.oms.inventory.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class InProcessInventoryClientTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Test
+    void reservesStockThroughTheService() {
+        InProcessInventoryClient client = new InProcessInventoryClient(inventoryService);
+        Mockito.when(inventoryService.reserveStock(1, 3, "order-7")).thenReturn(true);
+
+        StepVerifier.create(client.reserveStock(1, 3, "order-7")).verifyComplete();
+    }
+
+    @Test
+    void signalsOutOfStockWhenItemExistsButCannotBeReserved() {
+        InProcessInventoryClient client = new InProcessInventoryClient(inventoryService);
+        Mockito.when(inventoryService.reserveStock(1, 3, null)).thenReturn(false);
+        Mockito.when(inventoryService.findItemById(1)).thenReturn(new InventoryItemEntity(1, 2));
+
+        StepVerifier.create(client.reserveStock(1, 3)).verifyError(OutOfStockException.class);
+    }
+
+    @Test
+    void failsForUnknownItem() {
+        InProcessInventoryClient client = new InProcessInventoryClient(inventoryService);
+        Mockito.when(inventoryService.findItemById(9)).thenReturn(null);
+
+        StepVerifier.create(client.getInventoryItemById(9))
+                .verifyErrorMatches(e -> e.getMessage().equals("Item with id 9 not found"));
+    }
+
+    @Test
+    void mapsBatchLookupToDTOs() {
+        InProcessInventoryClient client = new InProcessInventoryClient(inventoryService);
+        Mockito.when(inventoryService.findItemsByIds(List.of(1, 2)))
+                .thenReturn(List.of(new InventoryItemEntity(1, 10), new InventoryItemEntity(2, 20)));
+
+        StepVerifier.create(client.getInventoryItemsByIds(List.of(1, 2)))
+                .expectNextMatches(items -> items.size() == 2 && items.get(1).getId() == 2 && items.get(1).getQuantity() == 20)
+                .verifyComplete();
+    }
+
+    @Test
+    void refusesToCreateAnItemThatAlreadyExists() {
+        InProcessInventoryClient client = new InProcessInventoryClient(inventoryService);
+        Mockito.when(inventoryService.findItemById(1)).thenReturn(new InventoryItemEntity(1, 10));
+
+        StepVerifier.create(client.createInventoryEntry(new InventoryItemDTO(1, 5)))
+                .verifyErrorMatches(e -> e.getMessage().equals("Item with id 1 already exists, try updating instead."));
+        Mockito.verify(inventoryService, Mockito.never()).addNewItem(Mockito.any());
+    }
+}
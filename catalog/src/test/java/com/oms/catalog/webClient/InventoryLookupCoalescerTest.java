@@ -0,0 +1,117 @@
+package com.oms.catalog.webClient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryLookupCoalescerTest {
+
+    @Mock
+    private InventoryServiceWebClient inventoryServiceWebClient;
+
+    @Test
+    void combinesLookupsWithinTheWindowIntoOneBatchRequest() {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 50, 100);
+        Mockito.doReturn(Mono.just(Arrays.asList(new InventoryItemDTO(1, 10), new InventoryItemDTO(2, 20))))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        Mono<InventoryItemDTO> first = coalescer.getInventoryItemById(1);
+        Mono<InventoryItemDTO> second = coalescer.getInventoryItemById(2);
+        Mono<InventoryItemDTO> repeated = coalescer.getInventoryItemById(1);
+
+        StepVerifier.create(Mono.zip(first, second, repeated))
+                .expectNextMatches(items -> items.getT1().getQuantity() == 10
+                        && items.getT2().getQuantity() == 20
+                        && items.getT3().getQuantity() == 10)
+                .verifyComplete();
+        ArgumentCaptor<List<Integer>> ids = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(1)).getInventoryItemsByIds(ids.capture());
+        Assertions.assertEquals(Set.of(1, 2), new HashSet<>(ids.getValue()));
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchIsFull() {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 60_000, 2);
+        Mockito.doReturn(Mono.just(Arrays.asList(new InventoryItemDTO(1, 10), new InventoryItemDTO(2, 20))))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        Mono<InventoryItemDTO> first = coalescer.getInventoryItemById(1);
+        Mono<InventoryItemDTO> second = coalescer.getInventoryItemById(2);
+
+        Assertions.assertEquals(10, first.block().getQuantity());
+        Assertions.assertEquals(20, second.block().getQuantity());
+    }
+
+    @Test
+    void completesEmptyForItemsMissingFromTheBatchResponse() {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 1, 100);
+        Mockito.doReturn(Mono.just(List.of())).when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        StepVerifier.create(coalescer.getInventoryItemById(5)).verifyComplete();
+    }
+
+    @Test
+    void propagatesBatchFailureToEveryWaitingLookup() {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 10, 100);
+        Mockito.doReturn(Mono.error(new RuntimeException("inventory unavailable")))
+                .when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        Mono<InventoryItemDTO> first = coalescer.getInventoryItemById(1);
+        Mono<InventoryItemDTO> second = coalescer.getInventoryItemById(2);
+
+        StepVerifier.create(first).verifyErrorMessage("inventory unavailable");
+        StepVerifier.create(second).verifyErrorMessage("inventory unavailable");
+    }
+
+    @Test
+    void sendsTheBatchUnderTheCorrelationIdOfTheLookupThatOpenedTheWindow() {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 1, 100);
+        AtomicReference<String> batchCorrelationId = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            batchCorrelationId.set(MDC.get("X-Correlation-ID"));
+            return Mono.just(List.of(new InventoryItemDTO(1, 10)));
+        }).when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        MDC.put("X-Correlation-ID", "lookup-1");
+        Mono<InventoryItemDTO> lookup;
+        try {
+            lookup = coalescer.getInventoryItemById(1);
+        } finally {
+            MDC.remove("X-Correlation-ID");
+        }
+
+        StepVerifier.create(lookup).expectNextMatches(item -> item.getQuantity() == 10).verifyComplete();
+        Assertions.assertEquals("lookup-1", batchCorrelationId.get());
+    }
+
+    @Test
+    void timerOfAWindowFlushedWhenFullDoesNotFlushTheNextWindow() throws InterruptedException {
+        InventoryLookupCoalescer coalescer = new InventoryLookupCoalescer(inventoryServiceWebClient::getInventoryItemsByIds, 300, 2);
+        Mockito.doReturn(Mono.just(List.of())).when(inventoryServiceWebClient).getInventoryItemsByIds(Mockito.any());
+
+        coalescer.getInventoryItemById(1);
+        coalescer.getInventoryItemById(2);
+        Thread.sleep(200);
+        Mono<InventoryItemDTO> next = coalescer.getInventoryItemById(3);
+        Thread.sleep(200);
+
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(1)).getInventoryItemsByIds(Mockito.any());
+        StepVerifier.create(next).verifyComplete();
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(2)).getInventoryItemsByIds(Mockito.any());
+    }
+}
@@ -16,6 +16,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Arrays;
+import java.util.List;
+
 @ExtendWith(MockitoExtension.class)
 public class InventoryServiceWebClientTest {
 
@@ -51,7 +54,7 @@ public class InventoryServiceWebClientTest {
         Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
         Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items");
         Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
-        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(testItem);
         Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
         Mockito.doReturn(Mono.just(ResponseEntity.ok().build())).when(responseSpec).toBodilessEntity();
 
@@ -66,7 +69,7 @@ public class InventoryServiceWebClientTest {
         Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
         Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items");
         Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
-        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(testItem);
         Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
         Mockito.doReturn(Mono.just(ResponseEntity.internalServerError().build())).when(responseSpec).toBodilessEntity();
 
@@ -100,4 +103,20 @@ public class InventoryServiceWebClientTest {
 
         StepVerifier.create(inventoryServiceWebClient.getInventoryItemById(1)).expectError();
     }
+
+    @Test
+    void getInventoryItemsByIds() {
+        List<Integer> ids = Arrays.asList(1, 2);
+        ResponseEntity<List<InventoryItemDTO>> responseEntity = new ResponseEntity<>(Arrays.asList(testItem, new InventoryItemDTO(2, 20)), HttpStatus.OK);
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items/batch");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(ids);
+        Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
+        Mockito.doReturn(Mono.just(responseEntity)).when(responseSpec).toEntityList(InventoryItemDTO.class);
+
+        StepVerifier.create(inventoryServiceWebClient.getInventoryItemsByIds(ids))
+                .expectNextMatches(items -> items.size() == 2 && items.get(1).getQuantity() == 20)
+                .verifyComplete();
+    }
 }
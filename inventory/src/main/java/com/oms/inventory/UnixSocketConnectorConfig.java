@@ -0,0 +1,17 @@
+package com.oms.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// When inventory.unix-socket.path is set, Tomcat also accepts HTTP on that Unix domain socket.
+@Configuration
+public class UnixSocketConnectorConfig {
+
+    @Bean
+    public UnixSocketConnectorCustomizer unixSocketConnector(
+            @Value("${inventory.unix-socket.path:}") String socketPath,
+            @Value("${inventory.unix-socket.permissions:rw-rw----}") String permissions) {
+        return new UnixSocketConnectorCustomizer(socketPath, permissions);
+    }
+}
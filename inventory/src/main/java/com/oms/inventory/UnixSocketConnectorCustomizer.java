@@ -0,0 +1,87 @@
+package com.oms.inventory;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// When a socket path is given, Tomcat also accepts HTTP on that Unix domain socket so that services on the
+// same host can skip loopback TCP. The TCP connector on server.port stays as it is. Used by catalog, orders
+// and inventory; each service registers its own instance with its <service>.unix-socket.* properties.
+public class UnixSocketConnectorCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory>, Ordered {
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private String socketPath;
+
+    private String permissions;
+
+    public UnixSocketConnectorCustomizer(String socketPath, String permissions) {
+        this.socketPath = socketPath;
+        this.permissions = permissions;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if (!StringUtils.hasText(socketPath)) {
+            return;
+        }
+        try {
+            // A socket file left behind by a killed process would make the bind fail.
+            Files.deleteIfExists(Path.of(socketPath));
+        } catch (IOException e) {
+            logger.error(String.format("Could not remove stale socket file %s", socketPath));
+            throw new RuntimeException(e);
+        }
+        Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+        connector.setProperty("unixDomainSocketPath", socketPath);
+        connector.setProperty("unixDomainSocketPathPermissions", permissions);
+        applyServerSettings(factory, connector);
+        factory.addAdditionalTomcatConnectors(connector);
+        logger.info("Listening on unix socket {}", socketPath);
+    }
+
+    // Runs after Boot's own customizers, so the factory already carries the server.* settings.
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    // Tomcat only applies server.* settings such as max-http-request-header-size, compression and http2
+    // to the connector on server.port; additional connectors get them here, as the factory does for its own.
+    @SuppressWarnings("unchecked")
+    private static void applyServerSettings(TomcatServletWebServerFactory factory, Connector connector) {
+        ProtocolHandler protocolHandler = connector.getProtocolHandler();
+        for (TomcatProtocolHandlerCustomizer<?> customizer : factory.getTomcatProtocolHandlerCustomizers()) {
+            ((TomcatProtocolHandlerCustomizer<ProtocolHandler>) customizer).customize(protocolHandler);
+        }
+        if (factory.getUriEncoding() != null) {
+            connector.setURIEncoding(factory.getUriEncoding().name());
+        }
+        if (factory.getHttp2() != null && factory.getHttp2().isEnabled()) {
+            connector.addUpgradeProtocol(new Http2Protocol());
+        }
+        Compression compression = factory.getCompression();
+        if (compression != null && compression.getEnabled() && protocolHandler instanceof AbstractHttp11Protocol<?> protocol) {
+            protocol.setCompression("on");
+            protocol.setCompressionMinSize((int) compression.getMinResponseSize().toBytes());
+            protocol.setCompressibleMimeType(StringUtils.arrayToCommaDelimitedString(compression.getMimeTypes()));
+            if (compression.getExcludedUserAgents() != null) {
+                protocol.setNoCompressionUserAgents(StringUtils.arrayToCommaDelimitedString(compression.getExcludedUserAgents()));
+            }
+        }
+        factory.getTomcatConnectorCustomizers().forEach(customizer -> customizer.customize(connector));
+    }
+}
@@ -13,6 +13,9 @@ import java.util.List;
 @RequestMapping("/api/v1/inventory")
 public class InventoryController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private InventoryService inventoryService;
 
     @Autowired
@@ -58,6 +61,19 @@ public class InventoryController {
         }
     }
 
+    @PostMapping("/items/batch")
+    public ResponseEntity<?> findItemsByIds(@RequestBody List<Integer> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(String.format("At most %s ids can be fetched in one batch", MAX_BATCH_SIZE));
+        }
+        try {
+            List<InventoryItemEntity> items = inventoryService.findItemsByIds(ids);
+            return ResponseEntity.ok(items);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/items/item")
     public ResponseEntity<?> deleteSingleItem(@RequestParam("id") int id) {
         try {
@@ -86,6 +102,41 @@ public class InventoryController {
         }
     }
 
+    @PostMapping("/items/{id}/reserve")
+    public ResponseEntity<?> reserveStock(@PathVariable("id") int id, @RequestParam("quantity") int quantity,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (quantity <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Quantity to reserve should be at least 1");
+        }
+        try {
+            if (inventoryService.reserveStock(id, quantity, idempotencyKey)) {
+                return ResponseEntity.status(HttpStatus.OK).build();
+            }
+            if (inventoryService.findItemById(id) == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(String.format("No item found with id %s", id));
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(String.format("Not enough stock to reserve %s units of item with id %s", quantity, id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/items/{id}/release")
+    public ResponseEntity<?> releaseStock(@PathVariable("id") int id, @RequestParam("quantity") int quantity,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (quantity <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Quantity to release should be at least 1");
+        }
+        try {
+            if (!inventoryService.releaseStock(id, quantity, idempotencyKey)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(String.format("No item found with id %s", id));
+            }
+            return ResponseEntity.status(HttpStatus.OK).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     private InventoryItemEntity dtoToEntityConverter(InventoryItemDTO inventoryItemDTO) {
         return new InventoryItemEntity(
                 inventoryItemDTO.getId(),
@@ -0,0 +1,56 @@
+package com.oms.inventory.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "inventory_stock_operations")
+public class StockOperationEntity {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "item_id")
+    private int itemId;
+
+    @Column(name = "quantity")
+    private int quantity;
+
+    @Column(name = "operation")
+    private String operation;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    public StockOperationEntity() {}
+
+    public StockOperationEntity(String idempotencyKey, int itemId, int quantity, String operation) {
+        this.idempotencyKey = idempotencyKey;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.operation = operation;
+        this.createdAt = Instant.now();
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
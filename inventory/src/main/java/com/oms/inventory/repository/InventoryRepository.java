@@ -2,8 +2,21 @@ package com.oms.inventory.repository;
 
 
 import com.oms.inventory.entity.InventoryItemEntity;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface InventoryRepository extends JpaRepository<InventoryItemEntity, Integer> {
 
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update InventoryItemEntity i set i.quantity = i.quantity - :quantity where i.id = :id and i.quantity >= :quantity")
+    public int reserveStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update InventoryItemEntity i set i.quantity = i.quantity + :quantity where i.id = :id")
+    public int releaseStock(@Param("id") int id, @Param("quantity") int quantity);
 }
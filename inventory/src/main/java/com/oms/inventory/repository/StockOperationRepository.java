@@ -0,0 +1,17 @@
+package com.oms.inventory.repository;
+
+import com.oms.inventory.entity.StockOperationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface StockOperationRepository extends JpaRepository<StockOperationEntity, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StockOperationEntity o WHERE o.createdAt < :cutoff")
+    public int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,12 +1,16 @@
 package com.oms.inventory.service;
 
 import com.oms.inventory.entity.InventoryItemEntity;
+import com.oms.inventory.entity.StockOperationEntity;
 import com.oms.inventory.repository.InventoryRepository;
+import com.oms.inventory.repository.StockOperationRepository;
+import jakarta.transaction.Transactional;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
@@ -16,8 +20,11 @@ public class InventoryService {
 
     private InventoryRepository repository;
 
-    public InventoryService(InventoryRepository repository) {
+    private StockOperationRepository stockOperationRepository;
+
+    public InventoryService(InventoryRepository repository, StockOperationRepository stockOperationRepository) {
         this.repository = repository;
+        this.stockOperationRepository = stockOperationRepository;
     }
 
     public InventoryItemEntity addNewItem(InventoryItemEntity inventoryItemEntity) throws RuntimeException {
@@ -42,6 +49,18 @@ public class InventoryService {
         }
     }
 
+    public List<InventoryItemEntity> findItemsByIds(List<Integer> ids) throws RuntimeException {
+        try {
+            List<InventoryItemEntity> foundItems = repository.findAllById(ids);
+            logger.info(String.format("Found %s of %s requested items in inventory", foundItems.size(), ids.size()));
+            return foundItems;
+        } catch (Exception e) {
+            logger.error(String.format("Failed to fetch %s items from the inventory", ids.size()));
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     public InventoryItemEntity findItemById(int id) {
         try {
             InventoryItemEntity foundItem = repository.findById(id).orElse(null);
@@ -90,4 +109,79 @@ public class InventoryService {
         }
     }
 
+    public Boolean reserveStock(int id, int quantity) throws RuntimeException {
+        try {
+            boolean reserved = repository.reserveStock(id, quantity) == 1;
+            if (reserved) {
+                logger.info(String.format("Reserved %s units of item with id %s", quantity, id));
+            } else {
+                logger.info(String.format("Could not reserve %s units of item with id %s", quantity, id));
+            }
+            return reserved;
+        } catch (Exception e) {
+            logger.error(String.format("Failed to reserve stock for item with id %s", id));
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    public Boolean releaseStock(int id, int quantity) throws RuntimeException {
+        try {
+            boolean released = repository.releaseStock(id, quantity) == 1;
+            if (released) {
+                logger.info(String.format("Released %s units of item with id %s", quantity, id));
+            } else {
+                logger.info(String.format("No item with id %s found in the inventory", id));
+            }
+            return released;
+        } catch (Exception e) {
+            logger.error(String.format("Failed to release stock for item with id %s", id));
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    // Callers that retry (the orders outbox relay) send an idempotency key. The key is recorded in the
+    // same transaction as the stock change, so a retried request that already took effect is not applied twice.
+    // A combined reservation (the orders stock combiner) sends the comma-separated keys of every order it
+    // covers; all of them are recorded, so each order can later be retried on its own key. If only some of
+    // the keys were applied before, nothing is reserved and the caller has to reserve key by key.
+    @Transactional
+    public Boolean reserveStock(int id, int quantity, String idempotencyKey) throws RuntimeException {
+        if (idempotencyKey == null) {
+            return reserveStock(id, quantity);
+        }
+        List<String> keys = Arrays.stream(idempotencyKey.split(",")).map(String::trim).toList();
+        long applied = keys.stream().filter(stockOperationRepository::existsById).count();
+        if (applied == keys.size()) {
+            logger.info(String.format("Reservation with idempotency key %s was already applied", idempotencyKey));
+            return true;
+        }
+        if (applied > 0) {
+            logger.info(String.format("Only %s of the idempotency keys %s were already applied, not reserving them together", applied, idempotencyKey));
+            return false;
+        }
+        boolean reserved = reserveStock(id, quantity);
+        if (reserved) {
+            keys.forEach(key -> stockOperationRepository.save(new StockOperationEntity(key, id, quantity, "reserve")));
+        }
+        return reserved;
+    }
+
+    @Transactional
+    public Boolean releaseStock(int id, int quantity, String idempotencyKey) throws RuntimeException {
+        if (idempotencyKey == null) {
+            return releaseStock(id, quantity);
+        }
+        if (stockOperationRepository.existsById(idempotencyKey)) {
+            logger.info(String.format("Release with idempotency key %s was already applied", idempotencyKey));
+            return true;
+        }
+        boolean released = releaseStock(id, quantity);
+        if (released) {
+            stockOperationRepository.save(new StockOperationEntity(idempotencyKey, id, quantity, "release"));
+        }
+        return released;
+    }
+
 }
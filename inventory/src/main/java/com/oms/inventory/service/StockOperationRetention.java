@@ -0,0 +1,38 @@
+package com.oms.inventory.service;
+
+import com.oms.inventory.repository.StockOperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// An applied stock operation is only kept to recognise a retry of it, and callers stop retrying long before
+// the TTL runs out: the orders outbox gives up after max-attempts and the intake re-drive after the order
+// is confirmed or rejected. Older operations are purged so inventory_stock_operations does not grow forever.
+@Component
+public class StockOperationRetention {
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private StockOperationRepository stockOperationRepository;
+
+    private Duration ttl;
+
+    public StockOperationRetention(StockOperationRepository stockOperationRepository,
+                                   @Value("${inventory.stock-operations.ttl-hours:168}") long ttlHours) {
+        this.stockOperationRepository = stockOperationRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock-operations.cleanup-interval-ms:60000}")
+    public void purgeExpiredOperations() {
+        int purged = stockOperationRepository.deleteCreatedBefore(Instant.now().minus(ttl));
+        if (purged > 0) {
+            logger.info(String.format("Purged %s expired stock operations", purged));
+        }
+    }
+}
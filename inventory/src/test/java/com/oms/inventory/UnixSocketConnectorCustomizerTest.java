@@ -0,0 +1,53 @@
+package com.oms.inventory;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+public class UnixSocketConnectorCustomizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void addsNoConnectorWithoutSocketPath() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+
+        new UnixSocketConnectorCustomizer("", "rw-rw----").customize(factory);
+
+        Assertions.assertTrue(factory.getAdditionalTomcatConnectors().isEmpty());
+    }
+
+    @Test
+    void appliesServerSettingsToTheSocketConnector() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        Compression compression = new Compression();
+        compression.setEnabled(true);
+        compression.setMimeTypes(new String[] {"application/json"});
+        compression.setMinResponseSize(DataSize.ofKilobytes(2));
+        factory.setCompression(compression);
+        Http2 http2 = new Http2();
+        http2.setEnabled(true);
+        factory.setHttp2(http2);
+        factory.addProtocolHandlerCustomizers(handler -> ((AbstractHttp11Protocol<?>) handler).setMaxHttpRequestHeaderSize(64 * 1024));
+        String socketPath = tempDir.resolve("inventory.sock").toString();
+
+        new UnixSocketConnectorCustomizer(socketPath, "rw-rw----").customize(factory);
+
+        Connector connector = factory.getAdditionalTomcatConnectors().get(0);
+        AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+        Assertions.assertEquals(socketPath, connector.getProperty("unixDomainSocketPath"));
+        Assertions.assertEquals(64 * 1024, protocol.getMaxHttpRequestHeaderSize());
+        Assertions.assertEquals("on", protocol.getCompression());
+        Assertions.assertEquals(2048, protocol.getCompressionMinSize());
+        Assertions.assertEquals(1, connector.findUpgradeProtocols().length);
+    }
+}
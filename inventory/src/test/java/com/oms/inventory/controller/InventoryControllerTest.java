@@ -24,6 +24,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
 
 @WebMvcTest(InventoryController.class)
 @TestPropertySource(locations = "classpath:/application-test.properties")
@@ -130,6 +132,38 @@ public class InventoryControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void findsItemsByIdsInABatch() throws Exception {
+        Mockito.doReturn(Arrays.asList(
+                new InventoryItemEntity(1, 10),
+                new InventoryItemEntity(2, 20)
+        )).when(inventoryService).findItemsByIds(Arrays.asList(1, 2));
+        mockMvc.perform(post("/api/v1/inventory/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Arrays.asList(1, 2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].quantity").value(20));
+    }
+
+    @Test
+    void batchLookupReturns4xxWhenTooManyIdsAreRequested() throws Exception {
+        List<Integer> ids = IntStream.rangeClosed(1, 1001).boxed().toList();
+        mockMvc.perform(post("/api/v1/inventory/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batchLookupReturns5xxWhenLookupFails() throws Exception {
+        Mockito.doThrow(RuntimeException.class).when(inventoryService).findItemsByIds(any());
+        mockMvc.perform(post("/api/v1/inventory/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Arrays.asList(1, 2))))
+                .andExpect(status().isInternalServerError());
+    }
+
     @Test
     void deletesItemsSuccessfully() throws Exception {
         Mockito.doReturn(true).when(inventoryService).deleteItemById(1);
@@ -181,4 +215,55 @@ public class InventoryControllerTest {
                         .content(om.writeValueAsString(updatedItem)))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void reservesStockWhenEnoughIsAvailable() throws Exception {
+        Mockito.doReturn(true).when(inventoryService).reserveStock(1, 5, null);
+        mockMvc.perform(post("/api/v1/inventory/items/1/reserve?quantity=5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reserveStockReturnsConflictWhenNotEnoughIsAvailable() throws Exception {
+        Mockito.doReturn(false).when(inventoryService).reserveStock(1, 5, null);
+        Mockito.doReturn(new InventoryItemEntity(1, 2)).when(inventoryService).findItemById(1);
+        mockMvc.perform(post("/api/v1/inventory/items/1/reserve?quantity=5"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reserveStockReturns4xxWhenItemDoesNotExist() throws Exception {
+        Mockito.doReturn(false).when(inventoryService).reserveStock(1, 5, null);
+        Mockito.doReturn(null).when(inventoryService).findItemById(1);
+        mockMvc.perform(post("/api/v1/inventory/items/1/reserve?quantity=5"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void reserveStockRejectsNonPositiveQuantities() throws Exception {
+        mockMvc.perform(post("/api/v1/inventory/items/1/reserve?quantity=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void releasesStockSuccessfully() throws Exception {
+        Mockito.doReturn(true).when(inventoryService).releaseStock(1, 5, null);
+        mockMvc.perform(post("/api/v1/inventory/items/1/release?quantity=5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void releaseStockReturns4xxWhenItemDoesNotExist() throws Exception {
+        Mockito.doReturn(false).when(inventoryService).releaseStock(1, 5, null);
+        mockMvc.perform(post("/api/v1/inventory/items/1/release?quantity=5"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void passesIdempotencyKeyThroughWhenReservingStock() throws Exception {
+        Mockito.doReturn(true).when(inventoryService).reserveStock(1, 5, "order-1-reserve");
+        mockMvc.perform(post("/api/v1/inventory/items/1/reserve?quantity=5")
+                        .header("Idempotency-Key", "order-1-reserve"))
+                .andExpect(status().isOk());
+    }
 }
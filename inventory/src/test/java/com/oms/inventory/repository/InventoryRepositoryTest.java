@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.ArrayList;
@@ -19,6 +21,9 @@ public class InventoryRepositoryTest {
     @Autowired
     private InventoryRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     void cleanup() {
         repository.deleteAll();
@@ -106,4 +111,39 @@ public class InventoryRepositoryTest {
         foundItemOne = repository.findById(1).orElse(null);
         Assertions.assertEquals(40, foundItemOne.getQuantity());
     }
+
+    @Test
+    void reservesStockOnlyIfEnoughIsAvailable() {
+        repository.save(new InventoryItemEntity(1, 10));
+
+        Assertions.assertEquals(1, repository.reserveStock(1, 4));
+        Assertions.assertEquals(6, repository.findById(1).orElse(null).getQuantity());
+
+        Assertions.assertEquals(0, repository.reserveStock(1, 7));
+        Assertions.assertEquals(6, repository.findById(1).orElse(null).getQuantity());
+    }
+
+    @Test
+    void releasesStockBackToTheItem() {
+        repository.save(new InventoryItemEntity(1, 10));
+
+        Assertions.assertEquals(1, repository.releaseStock(1, 5));
+        Assertions.assertEquals(15, repository.findById(1).orElse(null).getQuantity());
+        Assertions.assertEquals(0, repository.releaseStock(2, 5));
+    }
+
+    @Test
+    void storesQuantityAsAnInteger() {
+        String dataType = jdbcTemplate.queryForObject(
+                "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'INVENTORY' AND COLUMN_NAME = 'QUANTITY'",
+                String.class);
+        Assertions.assertEquals("INTEGER", dataType);
+    }
+
+    @Test
+    void rejectsNegativeQuantities() {
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            repository.save(new InventoryItemEntity(1, -1));
+        });
+    }
 }
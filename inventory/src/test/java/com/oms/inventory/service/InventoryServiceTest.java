@@ -1,10 +1,13 @@
 package com.oms.inventory.service;
 
 import com.oms.inventory.entity.InventoryItemEntity;
+import com.oms.inventory.entity.StockOperationEntity;
 import com.oms.inventory.repository.InventoryRepository;
+import com.oms.inventory.repository.StockOperationRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
@@ -24,11 +27,14 @@ public class InventoryServiceTest {
     @MockitoBean
     private InventoryRepository inventoryRepository;
 
+    @MockitoBean
+    private StockOperationRepository stockOperationRepository;
+
     private InventoryService inventoryService;
 
     @BeforeEach
     void setup() {
-        inventoryService = new InventoryService(inventoryRepository);
+        inventoryService = new InventoryService(inventoryRepository, stockOperationRepository);
     }
 
     @Test
@@ -100,6 +106,26 @@ public class InventoryServiceTest {
         });
     }
 
+    @Test
+    void findsAllItemsForTheRequestedIds() throws RuntimeException {
+        List<Integer> ids = Arrays.asList(1, 2, 3);
+        Mockito.doReturn(Arrays.asList(
+                new InventoryItemEntity(1, 10),
+                new InventoryItemEntity(3, 30)
+        )).when(inventoryRepository).findAllById(ids);
+        List<InventoryItemEntity> foundItems = inventoryService.findItemsByIds(ids);
+        Assertions.assertEquals(2, foundItems.size());
+        Assertions.assertEquals(3, foundItems.get(1).getId());
+    }
+
+    @Test
+    void throwsExceptionIfFindingItemsByIdsFails() throws RuntimeException {
+        Mockito.doThrow(RuntimeException.class).when(inventoryRepository).findAllById(any());
+        Assertions.assertThrows(RuntimeException.class, () -> {
+            inventoryService.findItemsByIds(Arrays.asList(1, 2));
+        });
+    }
+
     @Test
     void deletesInventoryItemSuccessfully() throws RuntimeException {
         InventoryItemEntity itemOne = new InventoryItemEntity(1, 20);
@@ -155,4 +181,80 @@ public class InventoryServiceTest {
             inventoryService.updateItem(updatedItem);
         });
     }
+
+    @Test
+    void reservesStockIfEnoughIsAvailable() throws RuntimeException {
+        Mockito.doReturn(1).when(inventoryRepository).reserveStock(1, 5);
+        Assertions.assertTrue(inventoryService.reserveStock(1, 5));
+    }
+
+    @Test
+    void doesNotReserveStockIfNotEnoughIsAvailable() throws RuntimeException {
+        Mockito.doReturn(0).when(inventoryRepository).reserveStock(1, 5);
+        Assertions.assertFalse(inventoryService.reserveStock(1, 5));
+    }
+
+    @Test
+    void releasesStockIfItemExists() throws RuntimeException {
+        Mockito.doReturn(1).when(inventoryRepository).releaseStock(1, 5);
+        Assertions.assertTrue(inventoryService.releaseStock(1, 5));
+    }
+
+    @Test
+    void throwsExceptionIfReleasingStockFails() throws RuntimeException {
+        Mockito.doThrow(RuntimeException.class).when(inventoryRepository).releaseStock(1, 5);
+        Assertions.assertThrows(RuntimeException.class, () -> {
+            inventoryService.releaseStock(1, 5);
+        });
+    }
+
+    @Test
+    void recordsIdempotencyKeyWhenReservingStock() throws RuntimeException {
+        Mockito.doReturn(false).when(stockOperationRepository).existsById("key-1");
+        Mockito.doReturn(1).when(inventoryRepository).reserveStock(1, 5);
+        Assertions.assertTrue(inventoryService.reserveStock(1, 5, "key-1"));
+        Mockito.verify(stockOperationRepository).save(any(StockOperationEntity.class));
+    }
+
+    @Test
+    void doesNotReserveStockTwiceForTheSameIdempotencyKey() throws RuntimeException {
+        Mockito.doReturn(true).when(stockOperationRepository).existsById("key-1");
+        Assertions.assertTrue(inventoryService.reserveStock(1, 5, "key-1"));
+        Mockito.verify(inventoryRepository, Mockito.never()).reserveStock(1, 5);
+    }
+
+    @Test
+    void doesNotRecordIdempotencyKeyWhenReservationFails() throws RuntimeException {
+        Mockito.doReturn(false).when(stockOperationRepository).existsById("key-1");
+        Mockito.doReturn(0).when(inventoryRepository).reserveStock(1, 5);
+        Assertions.assertFalse(inventoryService.reserveStock(1, 5, "key-1"));
+        Mockito.verify(stockOperationRepository, Mockito.never()).save(any(StockOperationEntity.class));
+    }
+
+    @Test
+    void recordsEveryIdempotencyKeyOfACombinedReservation() throws RuntimeException {
+        Mockito.doReturn(false).when(stockOperationRepository).existsById(any(String.class));
+        Mockito.doReturn(1).when(inventoryRepository).reserveStock(1, 5);
+        Assertions.assertTrue(inventoryService.reserveStock(1, 5, "order-1-reserve, order-2-reserve"));
+        ArgumentCaptor<StockOperationEntity> recorded = ArgumentCaptor.forClass(StockOperationEntity.class);
+        Mockito.verify(stockOperationRepository, Mockito.times(2)).save(recorded.capture());
+        Assertions.assertEquals(List.of("order-1-reserve", "order-2-reserve"),
+                recorded.getAllValues().stream().map(StockOperationEntity::getIdempotencyKey).toList());
+    }
+
+    @Test
+    void doesNotReserveCombinedReservationWhenOnlySomeKeysWereApplied() throws RuntimeException {
+        Mockito.doReturn(true).when(stockOperationRepository).existsById("order-1-reserve");
+        Mockito.doReturn(false).when(stockOperationRepository).existsById("order-2-reserve");
+        Assertions.assertFalse(inventoryService.reserveStock(1, 5, "order-1-reserve, order-2-reserve"));
+        Mockito.verify(inventoryRepository, Mockito.never()).reserveStock(1, 5);
+        Mockito.verify(stockOperationRepository, Mockito.never()).save(any(StockOperationEntity.class));
+    }
+
+    @Test
+    void doesNotReleaseStockTwiceForTheSameIdempotencyKey() throws RuntimeException {
+        Mockito.doReturn(true).when(stockOperationRepository).existsById("key-2");
+        Assertions.assertTrue(inventoryService.releaseStock(1, 5, "key-2"));
+        Mockito.verify(inventoryRepository, Mockito.never()).releaseStock(1, 5);
+    }
 }
@@ -0,0 +1,40 @@
+package com.oms.inventory.service;
+
+import com.oms.inventory.entity.StockOperationEntity;
+import com.oms.inventory.repository.StockOperationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class StockOperationRetentionTest {
+
+    @Autowired
+    private StockOperationRepository stockOperationRepository;
+
+    @AfterEach
+    void cleanup() {
+        stockOperationRepository.deleteAll();
+    }
+
+    @Test
+    void purgesOperationsOlderThanTheTtl() {
+        StockOperationEntity expiredOperation = new StockOperationEntity("expired-key", 1, 5, "reserve");
+        ReflectionTestUtils.setField(expiredOperation, "createdAt", Instant.now().minus(Duration.ofHours(169)));
+        stockOperationRepository.save(expiredOperation);
+        stockOperationRepository.save(new StockOperationEntity("fresh-key", 1, 5, "reserve"));
+
+        new StockOperationRetention(stockOperationRepository, 168).purgeExpiredOperations();
+
+        Assertions.assertFalse(stockOperationRepository.existsById("expired-key"));
+        Assertions.assertTrue(stockOperationRepository.existsById("fresh-key"));
+    }
+}
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares request throughput of one service with platform threads and with virtual threads.
+#
+# Usage: ./load-test.sh <catalog|inventory|orders> <url-path> [concurrency] [duration]
+#   e.g. ./load-test.sh catalog /api/v1/catalog/items/1 400 30s
+#
+# Build the jars first (mvn -B package -DskipTests) and start the databases (and any downstream
+# services the endpoint calls). The load is generated with hey running in docker. The script gives
+# up if the service is not answering within STARTUP_TIMEOUT seconds (default 120).
+
+set -euo pipefail
+
+SERVICE=${1:?service name required}
+URL_PATH=${2:?url path required}
+CONCURRENCY=${3:-400}
+DURATION=${4:-30s}
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-120}
+
+case "$SERVICE" in
+  catalog) PORT=8080 ;;
+  inventory) PORT=8081 ;;
+  orders) PORT=8082 ;;
+  *) echo "Unknown service: $SERVICE" >&2; exit 1 ;;
+esac
+
+JAR="$SERVICE/target/$SERVICE-0.0.1-SNAPSHOT.jar"
+URL="http://localhost:$PORT$URL_PATH"
+
+run() {
+  local virtual=$1
+  java -jar "$JAR" --spring.threads.virtual.enabled="$virtual" --logging.level.root=WARN > /dev/null 2>&1 &
+  local pid=$!
+  local waited=0
+  until curl -s -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "$SERVICE exited before it became ready" >&2
+      exit 1
+    fi
+    if [ "$waited" -ge "$STARTUP_TIMEOUT" ]; then
+      echo "$SERVICE did not answer on $URL within ${STARTUP_TIMEOUT}s" >&2
+      kill "$pid"
+      exit 1
+    fi
+    sleep 1
+    waited=$((waited + 1))
+  done
+
+  # Warm up the JIT and connection pools before measuring.
+  docker run --rm --network host williamyeh/hey -z 10s -c "$CONCURRENCY" "$URL" > /dev/null
+  local rps
+  rps=$(docker run --rm --network host williamyeh/hey -z "$DURATION" -c "$CONCURRENCY" "$URL" | awk '/Requests\/sec/ {print $2}')
+
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$rps"
+}
+
+PLATFORM_RPS=$(run false)
+VIRTUAL_RPS=$(run true)
+
+echo "$SERVICE $URL_PATH with $CONCURRENCY concurrent clients for $DURATION"
+echo "platform threads: $PLATFORM_RPS requests/sec"
+echo "virtual threads:  $VIRTUAL_RPS requests/sec"
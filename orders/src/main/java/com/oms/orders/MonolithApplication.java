@@ -0,0 +1,70 @@
+package com.oms.orders;
+
+import com.oms.catalog.CatalogApplication;
+import com.oms.catalog.service.CatalogService;
+import com.oms.inventory.InventoryApplication;
+import com.oms.inventory.service.InventoryService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+// Boots inventory, catalog and orders in one JVM. Each service keeps its own context, database and HTTP
+// port, but catalog and orders call inventory (and orders calls catalog) through the in-process clients
+// instead of HTTP. Arguments are passed to all three services.
+public class MonolithApplication {
+
+    public static void main(String[] args) {
+        start(args);
+    }
+
+    static List<ConfigurableApplicationContext> start(String[] args) {
+        ConfigurableApplicationContext inventory = new SpringApplicationBuilder(InventoryApplication.class)
+                .run(serviceArgs(InventoryApplication.class, args));
+        ConfigurableApplicationContext catalog = new SpringApplicationBuilder(CatalogApplication.class)
+                .initializers(sharing(inventory, InventoryService.class))
+                .run(serviceArgs(CatalogApplication.class, args, "--catalog.monolith.enabled=true"));
+        ConfigurableApplicationContext orders = new SpringApplicationBuilder(OrdersApplication.class)
+                .initializers(sharing(inventory, InventoryService.class), sharing(catalog, CatalogService.class))
+                .run(serviceArgs(OrdersApplication.class, args, "--orders.monolith.enabled=true"));
+        return List.of(inventory, catalog, orders);
+    }
+
+    // Every module ships an application.properties at the classpath root, so each context is pointed at
+    // the copy next to its own application class. Command line arguments win over that file.
+    static String[] serviceArgs(Class<?> applicationClass, String[] args, String... monolithArgs) {
+        List<String> serviceArgs = new ArrayList<>();
+        serviceArgs.add("--spring.config.location=" + ownApplicationProperties(applicationClass));
+        serviceArgs.addAll(Arrays.asList(args));
+        serviceArgs.addAll(Arrays.asList(monolithArgs));
+        return serviceArgs.toArray(new String[0]);
+    }
+
+    static ApplicationContextInitializer<ConfigurableApplicationContext> sharing(ConfigurableApplicationContext owner, Class<?> beanType) {
+        Object bean = owner.getBean(beanType);
+        return context -> context.getBeanFactory().registerSingleton(StringUtils.uncapitalize(beanType.getSimpleName()), bean);
+    }
+
+    static String ownApplicationProperties(Class<?> applicationClass) {
+        String codeSource = applicationClass.getProtectionDomain().getCodeSource().getLocation().toString();
+        try {
+            Enumeration<URL> candidates = applicationClass.getClassLoader().getResources("application.properties");
+            while (candidates.hasMoreElements()) {
+                String candidate = candidates.nextElement().toString();
+                if (candidate.startsWith(codeSource) || candidate.startsWith("jar:" + codeSource + "!/")) {
+                    return candidate;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        throw new IllegalStateException(String.format("No application.properties found next to %s", applicationClass.getName()));
+    }
+}
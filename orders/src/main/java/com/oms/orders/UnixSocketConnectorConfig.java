@@ -0,0 +1,18 @@
+package com.oms.orders;
+
+import com.oms.inventory.UnixSocketConnectorCustomizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// When orders.unix-socket.path is set, Tomcat also accepts HTTP on that Unix domain socket.
+@Configuration
+public class UnixSocketConnectorConfig {
+
+    @Bean
+    public UnixSocketConnectorCustomizer unixSocketConnector(
+            @Value("${orders.unix-socket.path:}") String socketPath,
+            @Value("${orders.unix-socket.permissions:rw-rw----}") String permissions) {
+        return new UnixSocketConnectorCustomizer(socketPath, permissions);
+    }
+}
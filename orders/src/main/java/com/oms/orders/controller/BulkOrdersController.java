@@ -0,0 +1,73 @@
+package com.oms.orders.controller;
+
+import com.oms.catalog.webClient.DownstreamUnavailableException;
+import com.oms.orders.dto.BulkOrderResultDTO;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.service.BulkOrdersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1")
+public class BulkOrdersController {
+
+    private static final int MAX_BULK_SIZE = 10000;
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private BulkOrdersService bulkOrdersService;
+
+    @Autowired
+    public BulkOrdersController(BulkOrdersService bulkOrdersService) {
+        this.bulkOrdersService = bulkOrdersService;
+    }
+
+    @PostMapping("/orders:bulk")
+    public ResponseEntity<?> createNewOrders(@RequestBody List<OrderDTO> orderDTOs) {
+        logger.info(String.format("Received request to create %s orders in bulk", orderDTOs.size()));
+        if (orderDTOs.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(String.format("At most %s orders can be created in one request", MAX_BULK_SIZE));
+        }
+        try {
+            List<OrderEntity> orders = new ArrayList<>();
+            for (OrderDTO orderDTO : orderDTOs) {
+                orders.add(new OrderEntity(
+                        orderDTO.getItemId(),
+                        orderDTO.getQuantity(),
+                        0,
+                        0,
+                        orderDTO.getStatus(),
+                        orderDTO.getContact()
+                ));
+            }
+            Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+            List<BulkOrderResultDTO> results = new ArrayList<>();
+            for (int index = 0; index < orders.size(); index++) {
+                if (rejections.containsKey(index)) {
+                    results.add(new BulkOrderResultDTO(index, false, null, rejections.get(index)));
+                } else {
+                    results.add(new BulkOrderResultDTO(index, true, OrdersController.convertEntityToDto(orders.get(index)), null));
+                }
+            }
+            logger.info(String.format("Created %s of %s orders in bulk", orders.size() - rejections.size(), orders.size()));
+            return ResponseEntity.status(HttpStatus.OK).body(results);
+        } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return OrdersController.serviceUnavailable(unavailable);
+            }
+            logger.info(String.format("Failed to create orders in bulk. Following exception occurred: %s", e.getMessage()));
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+}
@@ -4,18 +4,26 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oms.catalog.dto.CatalogDTO;
 import com.oms.catalog.entity.CatalogItemEntity;
+import com.oms.catalog.webClient.DownstreamUnavailableException;
+import com.oms.orders.dto.OrderCountsDTO;
 import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.dto.OrdersPageDTO;
 import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.service.OrderCounters;
+import com.oms.orders.service.OrderIdempotencyStore;
+import com.oms.orders.service.OrderIntakePipeline;
 import com.oms.orders.service.OrdersService;
-import com.oms.orders.webclient.CatalogServiceWebClient;
-import org.apache.coyote.Response;
+import com.oms.orders.webclient.CatalogItemCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,41 +31,152 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/v1/orders")
 public class OrdersController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     Logger logger = LoggerFactory.getLogger(getClass());
 
     private OrdersService ordersService;
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
-    private CatalogServiceWebClient catalogServiceWebClient;
+    private CatalogItemCache catalogItemCache;
+
+    private OrderIntakePipeline orderIntakePipeline;
+
+    private OrderCounters orderCounters;
+
+    private OrderIdempotencyStore orderIdempotencyStore;
 
     @Autowired
-    public OrdersController(OrdersService ordersService, CatalogServiceWebClient catalogServiceWebClient) {
+    public OrdersController(OrdersService ordersService, CatalogItemCache catalogItemCache, OrderIntakePipeline orderIntakePipeline,
+                            OrderCounters orderCounters, OrderIdempotencyStore orderIdempotencyStore) {
         this.ordersService = ordersService;
-        this.catalogServiceWebClient = catalogServiceWebClient;
+        this.catalogItemCache = catalogItemCache;
+        this.orderIntakePipeline = orderIntakePipeline;
+        this.orderCounters = orderCounters;
+        this.orderIdempotencyStore = orderIdempotencyStore;
     }
 
     @PostMapping
-    public ResponseEntity<?> createNewOrder(@RequestBody OrderDTO orderDTO) throws JsonProcessingException {
+    public ResponseEntity<?> createNewOrder(@RequestBody OrderDTO orderDTO,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws JsonProcessingException {
         logger.info(String.format("Received request to create new order: %s", objectMapper.writeValueAsString(orderDTO)));
+        if (isInvalidIdempotencyKey(idempotencyKey)) {
+            return invalidIdempotencyKey();
+        }
         try {
+            if (idempotencyKey != null) {
+                ResponseEntity<?> replay = replayCreatedOrder(idempotencyKey, orderDTO, HttpStatus.CREATED);
+                if (replay != null) {
+                    return replay;
+                }
+            }
             OrderEntity orderEntity = convertDtoToEntity(orderDTO);
-            OrderEntity createdOrder = ordersService.createNewOrder(orderEntity);
+            OrderEntity createdOrder = ordersService.createNewOrder(orderEntity, idempotencyKey);
             logger.info(String.format("Created new order with id: %s", createdOrder.getId()));
             return ResponseEntity.status(HttpStatus.CREATED).body(convertEntityToDto(createdOrder));
         } catch (Exception e) {
+            // A concurrent request with the same key may have won the race; answer with its order if so.
+            ResponseEntity<?> replay = idempotencyKey == null ? null : replayCreatedOrder(idempotencyKey, orderDTO, HttpStatus.CREATED);
+            if (replay != null) {
+                return replay;
+            }
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
             logger.info(String.format("Failed to create new order. Following exception occurred: %s", e.getMessage()));
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    private static boolean isInvalidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH);
+    }
+
+    private static ResponseEntity<?> invalidIdempotencyKey() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(String.format("%s should be between 1 and %s characters", IDEMPOTENCY_KEY_HEADER, MAX_IDEMPOTENCY_KEY_LENGTH));
+    }
+
+    // Answers a retried request from the stored key without calling catalog or inventory again,
+    // with the status the original request was answered with.
+    private ResponseEntity<?> replayCreatedOrder(String idempotencyKey, OrderDTO orderDTO, HttpStatus status) {
+        Integer orderId = orderIdempotencyStore.findOrderId(idempotencyKey);
+        if (orderId == null) {
+            return null;
+        }
+        OrderEntity createdOrder = ordersService.getOrderById(orderId);
+        if (createdOrder == null) {
+            return null;
+        }
+        boolean sameOrder = createdOrder.getItemId() == orderDTO.getItemId()
+                && createdOrder.getQuantity() == orderDTO.getQuantity()
+                && createdOrder.getContact().equals(orderDTO.getContact());
+        if (!sameOrder) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(String.format("%s %s was already used for a different order", IDEMPOTENCY_KEY_HEADER, idempotencyKey));
+        }
+        logger.info(String.format("Replaying order with id %s for %s %s", orderId, IDEMPOTENCY_KEY_HEADER, idempotencyKey));
+        return ResponseEntity.status(status)
+                .location(URI.create(String.format("/api/v1/orders/%s", orderId)))
+                .header("Idempotent-Replayed", "true")
+                .body(convertEntityToDto(createdOrder));
+    }
+
+    // Pricing and reservation happen after the response; clients poll GET /api/v1/orders/{id} for the outcome.
+    @PostMapping(params = "async=true")
+    public ResponseEntity<?> acceptNewOrder(@RequestBody OrderDTO orderDTO,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws JsonProcessingException {
+        logger.info(String.format("Received request to accept new order: %s", objectMapper.writeValueAsString(orderDTO)));
+        if (isInvalidIdempotencyKey(idempotencyKey)) {
+            return invalidIdempotencyKey();
+        }
+        try {
+            if (idempotencyKey != null) {
+                ResponseEntity<?> replay = replayCreatedOrder(idempotencyKey, orderDTO, HttpStatus.ACCEPTED);
+                if (replay != null) {
+                    return replay;
+                }
+            }
+            OrderEntity orderEntity = new OrderEntity(
+                    orderDTO.getItemId(),
+                    orderDTO.getQuantity(),
+                    0,
+                    0,
+                    orderDTO.getStatus(),
+                    orderDTO.getContact()
+            );
+            OrderEntity acceptedOrder = orderIntakePipeline.submit(orderEntity, idempotencyKey);
+            if (acceptedOrder == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body("Order intake is full, retry later");
+            }
+            logger.info(String.format("Accepted new order with id: %s", acceptedOrder.getId()));
+            return ResponseEntity.accepted()
+                    .location(URI.create(String.format("/api/v1/orders/%s", acceptedOrder.getId())))
+                    .body(convertEntityToDto(acceptedOrder));
+        } catch (Exception e) {
+            ResponseEntity<?> replay = idempotencyKey == null ? null : replayCreatedOrder(idempotencyKey, orderDTO, HttpStatus.ACCEPTED);
+            if (replay != null) {
+                return replay;
+            }
+            logger.info(String.format("Failed to accept new order. Following exception occurred: %s", e.getMessage()));
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getAllOrders() {
         logger.info("Received request to fetch all orders");
         try {
             List<OrderEntity> allOrders = ordersService.getAllOrders();
-            List<OrderDTO> allOrdersPayload = allOrders.stream().map(this::convertEntityToDto).collect(Collectors.toList());
+            List<OrderDTO> allOrdersPayload = allOrders.stream().map(OrdersController::convertEntityToDto).collect(Collectors.toList());
             return ResponseEntity.status(HttpStatus.OK).body(allOrdersPayload);
         } catch (Exception e) {
             logger.info(String.format("Failed to create new order. Following exception occurred: %s", e.getMessage()));
@@ -96,6 +215,10 @@ public class OrdersController {
             }
             return ResponseEntity.status(HttpStatus.OK).body(convertEntityToDto(updatedOrder));
         } catch (Exception e) {
+            DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable != null) {
+                return serviceUnavailable(unavailable);
+            }
             logger.info(String.format("Failed to create new order. Following exception occurred: %s", e.getMessage()));
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -122,9 +245,13 @@ public class OrdersController {
     @GetMapping(params = "status")
     public ResponseEntity<?> getOrdersOfStatus(@RequestParam("status") String status) {
         logger.info(String.format("Received request to find all orders with status \'%s\'", status));
+        OrderStatus orderStatus = OrderStatus.fromValue(status);
+        if (orderStatus == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(String.format("Not a defined status: %s", status));
+        }
         try {
-            List<OrderEntity> orders = ordersService.findAllOrderByStatus(status);
-            List<OrderDTO> allOrdersPayload = orders.stream().map(this::convertEntityToDto).collect(Collectors.toList());
+            List<OrderEntity> orders = ordersService.findAllOrderByStatus(orderStatus);
+            List<OrderDTO> allOrdersPayload = orders.stream().map(OrdersController::convertEntityToDto).collect(Collectors.toList());
             return ResponseEntity.status(HttpStatus.OK).body(orders);
         } catch (Exception e) {
             logger.info(String.format("Failed to create new order. Following exception occurred: %s", e.getMessage()));
@@ -133,9 +260,44 @@ public class OrdersController {
         }
     }
 
+    @GetMapping(params = {"status", "limit"})
+    public ResponseEntity<?> getOrdersPageOfStatus(@RequestParam("status") String status,
+                                                   @RequestParam(value = "after", defaultValue = "0") int after,
+                                                   @RequestParam("limit") int limit) {
+        logger.info(String.format("Received request to find %s orders with status \'%s\' after id %s", limit, status, after));
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(String.format("limit should be between 1 and %s", MAX_PAGE_SIZE));
+        }
+        OrderStatus orderStatus = OrderStatus.fromValue(status);
+        if (orderStatus == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(String.format("Not a defined status: %s", status));
+        }
+        try {
+            OrdersPageDTO page = ordersService.findOrdersPageByStatus(orderStatus, after, limit);
+            return ResponseEntity.status(HttpStatus.OK).body(page);
+        } catch (Exception e) {
+            logger.info(String.format("Failed to find orders by status. Following exception occurred: %s", e.getMessage()));
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<?> getOrderCounts() {
+        logger.info("Received request to fetch order counts by status");
+        return ResponseEntity.status(HttpStatus.OK).body(orderCounters.getCountsByStatus());
+    }
+
+    @GetMapping(value = "/counts", params = "itemId")
+    public ResponseEntity<?> getOrderCountsForItem(@RequestParam("itemId") int itemId) {
+        logger.info(String.format("Received request to fetch order counts for item with id %s", itemId));
+        OrderCountsDTO counts = orderCounters.getCountsForItem(itemId);
+        return ResponseEntity.status(HttpStatus.OK).body(counts);
+    }
+
     OrderEntity convertDtoToEntity(OrderDTO orderDTO) {
         try {
-            CatalogDTO catalogItem = catalogServiceWebClient.getCatalogItem(orderDTO.getItemId()).block();
+            CatalogDTO catalogItem = catalogItemCache.getCatalogItem(orderDTO.getItemId()).block();
             int orderQuantity = orderDTO.getQuantity();
             double pricePerUnit = catalogItem.getPricePerUnit();
             double totalPrice = orderQuantity * pricePerUnit;
@@ -148,13 +310,20 @@ public class OrdersController {
                     orderDTO.getContact()
             );
         } catch (Exception e) {
-            throw new RuntimeException(String.format("Could not convert DTO to Entity. Following error occurred: %s", e.getMessage()));
+            throw new RuntimeException(String.format("Could not convert DTO to Entity. Following error occurred: %s", e.getMessage()), e);
         }
 
     }
 
 
-    OrderDTO convertEntityToDto(OrderEntity orderEntity) {
+    // A downstream service was not called because it is unavailable; the client should retry after the given delay.
+    static ResponseEntity<?> serviceUnavailable(DownstreamUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    static OrderDTO convertEntityToDto(OrderEntity orderEntity) {
         OrderDTO orderDTO = new OrderDTO(
                 orderEntity.getItemId(),
                 orderEntity.getQuantity(),
@@ -0,0 +1,54 @@
+package com.oms.orders.controller;
+
+import com.oms.catalog.webClient.DownstreamUnavailableException;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.service.ReactiveOrdersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v2/orders")
+public class ReactiveOrdersController {
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private ReactiveOrdersService reactiveOrdersService;
+
+    @Autowired
+    public ReactiveOrdersController(ReactiveOrdersService reactiveOrdersService) {
+        this.reactiveOrdersService = reactiveOrdersService;
+    }
+
+    // Returning a Mono releases the servlet thread until the order is created.
+    @PostMapping
+    public Mono<ResponseEntity<?>> createNewOrder(@RequestBody OrderDTO orderDTO) {
+        logger.info(String.format("Received request to create new order for item with id %s", orderDTO.getItemId()));
+        OrderEntity orderEntity = new OrderEntity(
+                orderDTO.getItemId(),
+                orderDTO.getQuantity(),
+                0,
+                0,
+                orderDTO.getStatus(),
+                orderDTO.getContact()
+        );
+        return reactiveOrdersService.createNewOrder(orderEntity)
+                .<ResponseEntity<?>>map(createdOrder -> {
+                    logger.info(String.format("Created new order with id: %s", createdOrder.getId()));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(OrdersController.convertEntityToDto(createdOrder));
+                })
+                .onErrorResume(e -> {
+                    DownstreamUnavailableException unavailable = DownstreamUnavailableException.findIn(e);
+                    if (unavailable != null) {
+                        return Mono.just(OrdersController.serviceUnavailable(unavailable));
+                    }
+                    logger.info(String.format("Failed to create new order. Following exception occurred: %s", e.getMessage()));
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage()));
+                });
+    }
+}
@@ -0,0 +1,53 @@
+package com.oms.orders.dto;
+
+public class BulkOrderResultDTO {
+
+    private int index;
+
+    private boolean created;
+
+    private OrderDTO order;
+
+    private String error;
+
+    public BulkOrderResultDTO() {}
+
+    public BulkOrderResultDTO(int index, boolean created, OrderDTO order, String error) {
+        this.index = index;
+        this.created = created;
+        this.order = order;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    public OrderDTO getOrder() {
+        return order;
+    }
+
+    public void setOrder(OrderDTO order) {
+        this.order = order;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,40 @@
+package com.oms.orders.dto;
+
+public class OrderCountsDTO {
+
+    private long orderCount;
+    private long totalQuantity;
+    private double totalRevenue;
+
+    public OrderCountsDTO() {}
+
+    public OrderCountsDTO(long orderCount, long totalQuantity, double totalRevenue) {
+        this.orderCount = orderCount;
+        this.totalQuantity = totalQuantity;
+        this.totalRevenue = totalRevenue;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(double totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+}
@@ -1,5 +1,6 @@
 package com.oms.orders.dto;
 
+import com.oms.orders.entity.OrderStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,13 +18,13 @@ public class OrderDTO {
 
     private double totalPrice;
 
-    private String status;
+    private OrderStatus status;
 
     private String contact;
 
     public OrderDTO() {}
 
-    public OrderDTO(int itemId, int quantity, String status, String contact) {
+    public OrderDTO(int itemId, int quantity, OrderStatus status, String contact) {
         this.itemId = itemId;
         this.quantity = quantity;
         this.status = status;
@@ -70,11 +71,11 @@ public class OrderDTO {
         this.totalPrice = totalPrice;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
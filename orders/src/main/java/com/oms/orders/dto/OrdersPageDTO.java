@@ -0,0 +1,34 @@
+package com.oms.orders.dto;
+
+import com.oms.orders.entity.OrderEntity;
+
+import java.util.List;
+
+public class OrdersPageDTO {
+
+    private List<OrderEntity> items;
+    private Integer nextCursor;
+
+    public OrdersPageDTO() {}
+
+    public OrdersPageDTO(List<OrderEntity> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderEntity> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderEntity> items) {
+        this.items = items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
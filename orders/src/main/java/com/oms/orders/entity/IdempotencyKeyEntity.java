@@ -0,0 +1,62 @@
+package com.oms.orders.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "orders_idempotency_keys")
+public class IdempotencyKeyEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "order_id")
+    private int orderId;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // Always inserted, never merged, so a key taken by a concurrent request fails on the primary key
+    // instead of being overwritten with a second order id.
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyKeyEntity() {}
+
+    public IdempotencyKeyEntity(String idempotencyKey, int orderId) {
+        this.idempotencyKey = idempotencyKey;
+        this.orderId = orderId;
+        this.createdAt = Instant.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
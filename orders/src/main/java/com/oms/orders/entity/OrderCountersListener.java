@@ -0,0 +1,45 @@
+package com.oms.orders.entity;
+
+import com.oms.orders.service.OrderCounters;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Hibernate creates this listener while the EntityManagerFactory is being built, before OrderCounters
+// and the repository it seeds from can exist, so the counters are looked up on first use.
+public class OrderCountersListener {
+
+    private ObjectProvider<OrderCounters> orderCounters;
+
+    public OrderCountersListener(ObjectProvider<OrderCounters> orderCounters) {
+        this.orderCounters = orderCounters;
+    }
+
+    @PostLoad
+    void onLoad(OrderEntity order) {
+        order.rememberPersistedState();
+    }
+
+    @PostPersist
+    void onPersist(OrderEntity order) {
+        orderCounters.getObject().recordOrderAdded(order.getStatus(), order.getItemId(), order.getQuantity(), order.getTotalPrice());
+        order.rememberPersistedState();
+    }
+
+    @PostUpdate
+    void onUpdate(OrderEntity order) {
+        OrderCounters counters = orderCounters.getObject();
+        counters.recordOrderRemoved(order.getPersistedStatus(), order.getPersistedItemId(),
+                order.getPersistedQuantity(), order.getPersistedTotalPrice());
+        counters.recordOrderAdded(order.getStatus(), order.getItemId(), order.getQuantity(), order.getTotalPrice());
+        order.rememberPersistedState();
+    }
+
+    @PostRemove
+    void onRemove(OrderEntity order) {
+        orderCounters.getObject().recordOrderRemoved(order.getPersistedStatus(), order.getPersistedItemId(),
+                order.getPersistedQuantity(), order.getPersistedTotalPrice());
+    }
+}
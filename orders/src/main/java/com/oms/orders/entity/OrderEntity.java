@@ -2,11 +2,17 @@ package com.oms.orders.entity;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "orders")
+@EntityListeners(OrderCountersListener.class)
 public class OrderEntity {
+    // allocationSize must match the INCREMENT BY of orders_id_pool_seq; Hibernate hands out ids from each
+    // block of 50 in memory, so inserts no longer need a round trip per row and can be batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_pool_seq")
+    @SequenceGenerator(name = "orders_id_pool_seq", sequenceName = "orders_id_pool_seq", allocationSize = 50)
     private int id;
 
     @Column(name="item_id")
@@ -22,14 +28,32 @@ public class OrderEntity {
     private double totalPrice;
 
     @Column(name = "order_status")
-    private String status;
+    @Convert(converter = OrderStatusConverter.class)
+    private OrderStatus status;
 
     @Column(name = "contact")
     private String contact;
 
+    // Set while an order accepted by OrderIntakePipeline is waiting to be confirmed or rejected.
+    @Column(name = "intake_accepted_at")
+    private Instant intakeAcceptedAt;
+
+    // Values as last read from or written to the row, which OrderCountersListener takes back out of the counters.
+    @Transient
+    private OrderStatus persistedStatus;
+
+    @Transient
+    private int persistedItemId;
+
+    @Transient
+    private int persistedQuantity;
+
+    @Transient
+    private double persistedTotalPrice;
+
     public OrderEntity() {}
 
-    public OrderEntity(int itemId, int quantity, double pricePerUnit, double totalPrice, String status, String contact) {
+    public OrderEntity(int itemId, int quantity, double pricePerUnit, double totalPrice, OrderStatus status, String contact) {
         this.itemId = itemId;
         this.quantity = quantity;
         this.pricePerUnit = pricePerUnit;
@@ -78,11 +102,11 @@ public class OrderEntity {
         this.totalPrice = totalPrice;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
@@ -93,4 +117,35 @@ public class OrderEntity {
     public void setContact(String contact) {
         this.contact = contact;
     }
+
+    public Instant getIntakeAcceptedAt() {
+        return intakeAcceptedAt;
+    }
+
+    public void setIntakeAcceptedAt(Instant intakeAcceptedAt) {
+        this.intakeAcceptedAt = intakeAcceptedAt;
+    }
+
+    void rememberPersistedState() {
+        this.persistedStatus = status;
+        this.persistedItemId = itemId;
+        this.persistedQuantity = quantity;
+        this.persistedTotalPrice = totalPrice;
+    }
+
+    OrderStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    int getPersistedItemId() {
+        return persistedItemId;
+    }
+
+    int getPersistedQuantity() {
+        return persistedQuantity;
+    }
+
+    double getPersistedTotalPrice() {
+        return persistedTotalPrice;
+    }
 }
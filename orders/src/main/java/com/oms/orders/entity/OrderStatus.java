@@ -1,11 +1,85 @@
 package com.oms.orders.entity;
 
-public class OrderStatus {
-    public static final String NEW = "new";
-    public static final String PROCESSING = "processing";
-    public static final String SHIPPED = "shipped";
-    public static final String OU_FOR_DELIVERY = "out for delivery";
-    public static final String DELIVERED = "delivered";
-    public static final String RETURN_PLACED = "return placed";
-    public static final String RETURNED = "returned";
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public enum OrderStatus {
+    // The code is what gets stored in the SMALLINT order_status column, so existing codes must never change.
+    NEW(0, "new"),
+    PROCESSING(1, "processing"),
+    SHIPPED(2, "shipped"),
+    OU_FOR_DELIVERY(3, "out for delivery"),
+    DELIVERED(4, "delivered"),
+    RETURN_PLACED(5, "return placed"),
+    RETURNED(6, "returned"),
+    REJECTED(7, "rejected");
+
+    private static final Map<String, OrderStatus> BY_VALUE = new HashMap<>();
+
+    private static final OrderStatus[] BY_CODE = new OrderStatus[values().length];
+
+    private static final Map<OrderStatus, EnumSet<OrderStatus>> ALLOWED_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus status : values()) {
+            BY_VALUE.put(status.value, status);
+            BY_CODE[status.code] = status;
+        }
+        ALLOWED_TRANSITIONS.put(NEW, EnumSet.of(PROCESSING, SHIPPED, REJECTED));
+        ALLOWED_TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED, REJECTED));
+        ALLOWED_TRANSITIONS.put(SHIPPED, EnumSet.of(OU_FOR_DELIVERY, DELIVERED));
+        ALLOWED_TRANSITIONS.put(OU_FOR_DELIVERY, EnumSet.of(DELIVERED));
+        ALLOWED_TRANSITIONS.put(DELIVERED, EnumSet.of(RETURN_PLACED));
+        ALLOWED_TRANSITIONS.put(RETURN_PLACED, EnumSet.of(RETURNED));
+        ALLOWED_TRANSITIONS.put(RETURNED, EnumSet.noneOf(OrderStatus.class));
+        ALLOWED_TRANSITIONS.put(REJECTED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    private final short code;
+
+    private final String value;
+
+    OrderStatus(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return ALLOWED_TRANSITIONS.get(this).contains(next);
+    }
+
+    // Returns null for values that are not a defined status.
+    public static OrderStatus fromValue(String value) {
+        return value == null ? null : BY_VALUE.get(value);
+    }
+
+    public static OrderStatus fromCode(short code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException(String.format("Not a defined status code: %s", code));
+        }
+        return BY_CODE[code];
+    }
+
+    @JsonCreator
+    public static OrderStatus parse(String value) {
+        OrderStatus status = fromValue(value);
+        if (status == null) {
+            throw new IllegalArgumentException(String.format("Not a defined status: %s", value));
+        }
+        return status;
+    }
 }
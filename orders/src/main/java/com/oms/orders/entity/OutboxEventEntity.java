@@ -0,0 +1,123 @@
+package com.oms.orders.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "orders_outbox")
+public class OutboxEventEntity {
+    public static final String RESERVE_STOCK = "reserve_stock";
+    public static final String RELEASE_STOCK = "release_stock";
+
+    public static final String PENDING = "pending";
+    public static final String FAILED = "failed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "order_id")
+    private int orderId;
+
+    @Column(name = "event_type")
+    private String eventType;
+
+    @Column(name = "item_id")
+    private int itemId;
+
+    @Column(name = "quantity")
+    private int quantity;
+
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    public OutboxEventEntity() {}
+
+    public OutboxEventEntity(int orderId, String eventType, int itemId, int quantity) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.idempotencyKey = UUID.randomUUID().toString();
+        this.status = PENDING;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,17 @@
+package com.oms.orders.repository;
+
+import com.oms.orders.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.createdAt < :cutoff")
+    public int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,10 +1,24 @@
 package com.oms.orders.repository;
 
 import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface OrdersRepository extends JpaRepository<OrderEntity, Integer> {
-    public List<OrderEntity> findByStatus(String status);
+    public List<OrderEntity> findByStatus(OrderStatus status);
+
+    public List<OrderEntity> findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, int id, Limit limit);
+
+    public List<OrderEntity> findByIntakeAcceptedAtLessThanOrderByIdAsc(Instant acceptedBefore, Limit limit);
+
+    @Query("SELECT o.status, COUNT(o), SUM(o.quantity), SUM(o.totalPrice) FROM OrderEntity o GROUP BY o.status")
+    public List<Object[]> sumOrdersByStatus();
+
+    @Query("SELECT o.itemId, COUNT(o), SUM(o.quantity), SUM(o.totalPrice) FROM OrderEntity o GROUP BY o.itemId")
+    public List<Object[]> sumOrdersByItem();
 }
@@ -0,0 +1,21 @@
+package com.oms.orders.repository;
+
+import com.oms.orders.entity.OutboxEventEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+    // Due events in insertion order, skipping any queued behind an earlier event of the same order that
+    // is still pending, so an order's events are delivered one at a time in the order they were recorded.
+    @Query("SELECT e FROM OutboxEventEntity e WHERE e.status = :status AND e.nextAttemptAt <= :now "
+            + "AND NOT EXISTS (SELECT p FROM OutboxEventEntity p WHERE p.orderId = e.orderId AND p.status = :status AND p.id < e.id) "
+            + "ORDER BY e.id ASC")
+    public List<OutboxEventEntity> findDueInOrderOfEachOrder(@Param("status") String status, @Param("now") Instant now, Limit limit);
+
+    public List<OutboxEventEntity> findByOrderIdAndEventTypeAndStatus(int orderId, String eventType, String status);
+}
@@ -0,0 +1,176 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogClient;
+import com.oms.orders.webclient.InventoryClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Creates many orders with one catalog lookup per 1000 distinct items, one reservation per item
+// (per 500 orders of it) and a single saveAll, instead of running the per-order call chain for each of them.
+@Service
+public class BulkOrdersService {
+
+    private static final int PRICE_LOOKUP_BATCH_SIZE = 1000;
+    private static final int PRICE_LOOKUP_CONCURRENCY = 4;
+    // Keeps the comma-separated keys of one reservation well inside inventory's request header limit.
+    private static final int MAX_ORDERS_PER_RESERVATION = 500;
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private OrdersRepository ordersRepository;
+
+    private CatalogClient catalogClient;
+
+    private InventoryClient inventoryClient;
+
+    private int reserveConcurrency;
+
+    public BulkOrdersService(OrdersRepository ordersRepository, CatalogClient catalogClient,
+                             InventoryClient inventoryClient,
+                             @Value("${orders.bulk.reserve-concurrency:8}") int reserveConcurrency) {
+        this.ordersRepository = ordersRepository;
+        this.catalogClient = catalogClient;
+        this.inventoryClient = inventoryClient;
+        this.reserveConcurrency = reserveConcurrency;
+    }
+
+    // Returns the reason each rejected order was not created, keyed by its position in the request.
+    // Orders not in the result were saved, and their ids are set on the passed entities.
+    public Map<Integer, String> createNewOrders(List<OrderEntity> orders) throws RuntimeException {
+        Map<Integer, String> rejections = new HashMap<>();
+        Map<Integer, List<Integer>> ordersByItem = new LinkedHashMap<>();
+        for (int index = 0; index < orders.size(); index++) {
+            OrderEntity order = orders.get(index);
+            order.setStatus(OrderStatus.NEW); // new orders are always in NEW state.
+            if (order.getQuantity() <= 0) {
+                rejections.put(index, "Order quantity should be at least 1");
+            } else {
+                ordersByItem.computeIfAbsent(order.getItemId(), itemId -> new ArrayList<>()).add(index);
+            }
+        }
+        if (ordersByItem.isEmpty()) {
+            return rejections;
+        }
+
+        Map<Integer, CatalogDTO> catalogItems = getCatalogItems(new ArrayList<>(ordersByItem.keySet()));
+        List<ItemReservation> itemReservations = new ArrayList<>();
+        ordersByItem.forEach((itemId, indexes) -> {
+            CatalogDTO catalogItem = catalogItems.get(itemId);
+            if (catalogItem == null) {
+                indexes.forEach(index -> rejections.put(index, String.format("Item with id %s not found in catalog", itemId)));
+                return;
+            }
+            for (int index : indexes) {
+                OrderEntity order = orders.get(index);
+                order.setPricePerUnit(catalogItem.getPricePerUnit());
+                order.setTotalPrice(order.getQuantity() * catalogItem.getPricePerUnit());
+            }
+            for (int from = 0; from < indexes.size(); from += MAX_ORDERS_PER_RESERVATION) {
+                itemReservations.add(new ItemReservation(itemId, indexes.subList(from, Math.min(from + MAX_ORDERS_PER_RESERVATION, indexes.size()))));
+            }
+        });
+
+        // The orders have no ids yet, so each gets a reservation key of its own.
+        Map<Integer, String> reservationKeys = new HashMap<>();
+        itemReservations.forEach(reservation -> reservation.indexes()
+                .forEach(index -> reservationKeys.put(index, UUID.randomUUID().toString())));
+        Map<Integer, String> reservationFailures = new ConcurrentHashMap<>();
+        List<Integer> reservedOrders = Flux.fromIterable(itemReservations)
+                .flatMap(reservation -> reserveTogether(reservation, orders, reservationKeys, reservationFailures), reserveConcurrency)
+                .collectList()
+                .block();
+        rejections.putAll(reservationFailures);
+
+        List<OrderEntity> ordersToSave = new ArrayList<>();
+        reservedOrders.stream().sorted().forEach(index -> ordersToSave.add(orders.get(index)));
+        if (ordersToSave.isEmpty()) {
+            return rejections;
+        }
+        try {
+            ordersRepository.saveAll(ordersToSave);
+            logger.info(String.format("Created %s of %s bulk orders", ordersToSave.size(), orders.size()));
+        } catch (Exception e) {
+            logger.error("Saving bulk orders failed. Following error occurred.");
+            e.printStackTrace();
+            Flux.fromIterable(reservedOrders)
+                    .flatMap(index -> releaseStock(orders.get(index), reservationKeys.get(index)), reserveConcurrency)
+                    .blockLast();
+            reservedOrders.forEach(index -> rejections.put(index, "Saving the order failed"));
+        }
+        return rejections;
+    }
+
+    // Up to MAX_ORDERS_PER_RESERVATION orders for an item share one reservation that carries all of their
+    // keys. If it fails, for lack of stock or otherwise, each order is reserved on its own key, as
+    // StockReservationCombiner does: the orders that fit are still created, and a combined reservation that
+    // was applied despite the error is recognised key by key instead of being reserved again.
+    private Flux<Integer> reserveTogether(ItemReservation reservation, List<OrderEntity> orders,
+                                         Map<Integer, String> reservationKeys, Map<Integer, String> reservationFailures) {
+        int combinedQuantity = reservation.indexes().stream().mapToInt(index -> orders.get(index).getQuantity()).sum();
+        String combinedKeys = reservation.indexes().stream().map(reservationKeys::get).collect(Collectors.joining(","));
+        return inventoryClient.reserveStock(reservation.itemId(), combinedQuantity, combinedKeys)
+                .thenMany(Flux.fromIterable(reservation.indexes()))
+                .onErrorResume(error -> {
+                    if (reservation.indexes().size() == 1) {
+                        reservationFailures.put(reservation.indexes().get(0), String.valueOf(error.getMessage()));
+                        return Flux.empty();
+                    }
+                    logger.info(String.format("Combined reservation of %s units of item with id %s failed (%s), reserving %s orders one by one",
+                            combinedQuantity, reservation.itemId(), error.getMessage(), reservation.indexes().size()));
+                    return Flux.fromIterable(reservation.indexes())
+                            .concatMap(index -> inventoryClient.reserveStock(reservation.itemId(), orders.get(index).getQuantity(), reservationKeys.get(index))
+                                    .thenReturn(index)
+                                    .onErrorResume(orderError -> {
+                                        reservationFailures.put(index, String.valueOf(orderError.getMessage()));
+                                        return Mono.empty();
+                                    }));
+                });
+    }
+
+    private Map<Integer, CatalogDTO> getCatalogItems(List<Integer> itemIds) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < itemIds.size(); from += PRICE_LOOKUP_BATCH_SIZE) {
+            chunks.add(itemIds.subList(from, Math.min(from + PRICE_LOOKUP_BATCH_SIZE, itemIds.size())));
+        }
+        List<CatalogDTO> catalogItems = Flux.fromIterable(chunks)
+                .flatMap(catalogClient::getCatalogItems, PRICE_LOOKUP_CONCURRENCY)
+                .flatMapIterable(items -> items)
+                .collectList()
+                .block();
+        Map<Integer, CatalogDTO> catalogItemsById = new HashMap<>();
+        for (CatalogDTO catalogItem : catalogItems) {
+            catalogItemsById.put(catalogItem.getId(), catalogItem);
+        }
+        return catalogItemsById;
+    }
+
+    // Keyed from the order's reservation, so a release that is retried is only applied once.
+    private Mono<Void> releaseStock(OrderEntity order, String reservationKey) {
+        return inventoryClient.releaseStock(order.getItemId(), order.getQuantity(), reservationKey + "-release")
+                .onErrorResume(e -> {
+                    logger.error(String.format("Releasing %s units of item with id %s failed. Manually update the stock.", order.getQuantity(), order.getItemId()));
+                    e.printStackTrace();
+                    return Mono.empty();
+                });
+    }
+
+    private record ItemReservation(int itemId, List<Integer> indexes) {
+    }
+}
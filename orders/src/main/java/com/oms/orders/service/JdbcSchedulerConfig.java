@@ -0,0 +1,21 @@
+package com.oms.orders.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class JdbcSchedulerConfig {
+
+    // Blocking JPA calls from reactive pipelines run here, sized to match the JDBC connection pool
+    // so that a burst of orders queues up instead of tying up Reactor's shared threads.
+    @Bean(destroyMethod = "dispose")
+    @Qualifier("ordersJdbcScheduler")
+    public Scheduler ordersJdbcScheduler(@Value("${orders.jdbc-scheduler.max-threads:20}") int maxThreads,
+                                         @Value("${orders.jdbc-scheduler.max-queued-tasks:1000}") int maxQueuedTasks) {
+        return Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "orders-jdbc");
+    }
+}
@@ -0,0 +1,133 @@
+package com.oms.orders.service;
+
+import com.oms.orders.dto.OrderCountsDTO;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running order totals per status and per item, so counting orders does not read them from the database.
+// The totals are seeded by one aggregate query at startup and afterwards moved by OrderCountersListener
+// once the transaction that wrote the order has committed. The listener only sees writes made by this
+// instance, so the totals are rebuilt from the database every reseed-interval-ms to take in the writes of
+// the other instances. A write this instance commits while the rebuild is reading may be missed or counted
+// twice until the next rebuild.
+@Component
+public class OrderCounters {
+
+    private static class Totals {
+        private final LongAdder orderCount = new LongAdder();
+        private final LongAdder totalQuantity = new LongAdder();
+        private final DoubleAdder totalRevenue = new DoubleAdder();
+
+        void add(long orders, long quantity, double revenue) {
+            orderCount.add(orders);
+            totalQuantity.add(quantity);
+            totalRevenue.add(revenue);
+        }
+
+        OrderCountsDTO snapshot() {
+            return new OrderCountsDTO(orderCount.sum(), totalQuantity.sum(), totalRevenue.sum());
+        }
+    }
+
+    // Both maps are replaced together on a rebuild, so readers never see one seeded and the other not.
+    private static class Counts {
+        private final Map<OrderStatus, Totals> totalsByStatus = new EnumMap<>(OrderStatus.class);
+        private final Map<Integer, Totals> totalsByItem = new ConcurrentHashMap<>();
+
+        Counts() {
+            for (OrderStatus status : OrderStatus.values()) {
+                totalsByStatus.put(status, new Totals());
+            }
+        }
+    }
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private OrdersRepository ordersRepository;
+
+    private volatile Counts counts = new Counts();
+
+    public OrderCounters(OrdersRepository ordersRepository) {
+        this.ordersRepository = ordersRepository;
+    }
+
+    @PostConstruct
+    void seedFromOrders() {
+        Counts seeded = loadFromOrders();
+        counts = seeded;
+        logger.info(String.format("Seeded order counters for %s items", seeded.totalsByItem.size()));
+    }
+
+    @Scheduled(initialDelayString = "${orders.counters.reseed-interval-ms:60000}", fixedDelayString = "${orders.counters.reseed-interval-ms:60000}")
+    void reseedFromOrders() {
+        Counts reseeded = loadFromOrders();
+        counts = reseeded;
+        logger.debug(String.format("Reseeded order counters for %s items", reseeded.totalsByItem.size()));
+    }
+
+    private Counts loadFromOrders() {
+        Counts loaded = new Counts();
+        for (Object[] row : ordersRepository.sumOrdersByStatus()) {
+            loaded.totalsByStatus.get((OrderStatus) row[0])
+                    .add(((Number) row[1]).longValue(), ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue());
+        }
+        for (Object[] row : ordersRepository.sumOrdersByItem()) {
+            loaded.totalsByItem.computeIfAbsent((Integer) row[0], itemId -> new Totals())
+                    .add(((Number) row[1]).longValue(), ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue());
+        }
+        return loaded;
+    }
+
+    public void recordOrderAdded(OrderStatus status, int itemId, int quantity, double totalPrice) {
+        record(1, status, itemId, quantity, totalPrice);
+    }
+
+    public void recordOrderRemoved(OrderStatus status, int itemId, int quantity, double totalPrice) {
+        record(-1, status, itemId, quantity, totalPrice);
+    }
+
+    private void record(int sign, OrderStatus status, int itemId, int quantity, double totalPrice) {
+        Runnable apply = () -> {
+            Counts current = counts;
+            if (status != null) {
+                current.totalsByStatus.get(status).add(sign, (long) sign * quantity, sign * totalPrice);
+            }
+            current.totalsByItem.computeIfAbsent(itemId, id -> new Totals()).add(sign, (long) sign * quantity, sign * totalPrice);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    public Map<String, OrderCountsDTO> getCountsByStatus() {
+        Map<String, OrderCountsDTO> countsByStatus = new LinkedHashMap<>();
+        counts.totalsByStatus.forEach((status, totals) -> countsByStatus.put(status.getValue(), totals.snapshot()));
+        return countsByStatus;
+    }
+
+    public OrderCountsDTO getCountsForItem(int itemId) {
+        Totals totals = counts.totalsByItem.get(itemId);
+        return totals == null ? new OrderCountsDTO(0, 0, 0) : totals.snapshot();
+    }
+}
@@ -0,0 +1,77 @@
+package com.oms.orders.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oms.orders.entity.IdempotencyKeyEntity;
+import com.oms.orders.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Maps Idempotency-Key values to the order they created. Recent keys are answered from a bounded
+// in-memory cache; the table is the source of truth and is purged once keys outlive the TTL.
+@Component
+public class OrderIdempotencyStore {
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private Cache<String, Integer> recentKeys;
+
+    private Duration ttl;
+
+    public OrderIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                                 @Value("${orders.idempotency.cache-size:10000}") long cacheSize,
+                                 @Value("${orders.idempotency.ttl-hours:24}") long ttlHours) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Integer findOrderId(String idempotencyKey) {
+        Integer orderId = recentKeys.getIfPresent(idempotencyKey);
+        if (orderId != null) {
+            return orderId;
+        }
+        IdempotencyKeyEntity stored = idempotencyKeyRepository.findById(idempotencyKey).orElse(null);
+        if (stored == null || stored.getCreatedAt().isBefore(Instant.now().minus(ttl))) {
+            return null;
+        }
+        recentKeys.put(idempotencyKey, stored.getOrderId());
+        return stored.getOrderId();
+    }
+
+    // Joins the caller's transaction, so the key is only visible once the order it points to is committed.
+    public void record(String idempotencyKey, int orderId) {
+        idempotencyKeyRepository.saveAndFlush(new IdempotencyKeyEntity(idempotencyKey, orderId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentKeys.put(idempotencyKey, orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentKeys.put(idempotencyKey, orderId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:60000}")
+    public void purgeExpiredKeys() {
+        int purged = idempotencyKeyRepository.deleteCreatedBefore(Instant.now().minus(ttl));
+        if (purged > 0) {
+            logger.info(String.format("Purged %s expired idempotency keys", purged));
+        }
+    }
+}
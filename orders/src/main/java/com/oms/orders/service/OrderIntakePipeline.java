@@ -0,0 +1,253 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogItemCache;
+import com.oms.orders.webclient.StockReservationCombiner;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Accepted orders are stored as NEW and then priced, reserved and confirmed in the background.
+// At most `capacity` orders are in the pipeline at once; each stage pulls from the previous one
+// only as fast as its own concurrency allows. An accepted order keeps its intake_accepted_at
+// timestamp until it is confirmed or rejected, so orders lost from the in-memory pipeline by a
+// restart can be found and fed back in.
+@Component
+public class OrderIntakePipeline {
+
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private OrdersRepository ordersRepository;
+
+    private CatalogItemCache catalogItemCache;
+
+    private StockReservationCombiner stockReservationCombiner;
+
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    private TransactionOperations transactionOperations;
+
+    private Scheduler jdbcScheduler;
+
+    private Semaphore inFlight;
+
+    private Set<Integer> inPipeline = ConcurrentHashMap.newKeySet();
+
+    private long staleAfterMillis;
+
+    private int redriveBatchSize;
+
+    private Sinks.Many<OrderEntity> acceptedOrders = Sinks.many().unicast().onBackpressureBuffer();
+
+    private Disposable pipeline;
+
+    public OrderIntakePipeline(OrdersRepository ordersRepository, CatalogItemCache catalogItemCache,
+                               StockReservationCombiner stockReservationCombiner,
+                               OrderIdempotencyStore orderIdempotencyStore,
+                               TransactionOperations transactionOperations,
+                               @Qualifier("ordersJdbcScheduler") Scheduler jdbcScheduler,
+                               @Value("${orders.intake.capacity:1000}") int capacity,
+                               @Value("${orders.intake.price-concurrency:32}") int priceConcurrency,
+                               @Value("${orders.intake.reserve-concurrency:32}") int reserveConcurrency,
+                               @Value("${orders.intake.confirm-concurrency:16}") int confirmConcurrency,
+                               @Value("${orders.intake.stale-after-ms:300000}") long staleAfterMillis,
+                               @Value("${orders.intake.redrive-batch-size:100}") int redriveBatchSize) {
+        this.ordersRepository = ordersRepository;
+        this.catalogItemCache = catalogItemCache;
+        this.stockReservationCombiner = stockReservationCombiner;
+        this.orderIdempotencyStore = orderIdempotencyStore;
+        this.transactionOperations = transactionOperations;
+        this.jdbcScheduler = jdbcScheduler;
+        this.inFlight = new Semaphore(capacity);
+        this.staleAfterMillis = staleAfterMillis;
+        this.redriveBatchSize = redriveBatchSize;
+        this.pipeline = acceptedOrders.asFlux()
+                .flatMap(order -> runStage(order, "price", this::price, error -> true), priceConcurrency)
+                .flatMap(order -> runStage(order, "reserve", this::reserve, error -> error instanceof OutOfStockException), reserveConcurrency)
+                .flatMap(order -> runStage(order, "confirm", this::confirm, error -> false), confirmConcurrency)
+                .subscribe(order -> {
+                    leavePipeline(order);
+                    logger.info(String.format("Order with id %s confirmed", order.getId()));
+                });
+    }
+
+    public OrderEntity submit(OrderEntity orderEntity) throws RuntimeException {
+        return submit(orderEntity, null);
+    }
+
+    // Returns null without storing anything when the pipeline is full, so the caller can ask the client to retry.
+    // An idempotency key is stored in the order's transaction, so a concurrent request with the same key
+    // fails on the key's primary key and no second order is accepted.
+    public OrderEntity submit(OrderEntity orderEntity, String idempotencyKey) throws RuntimeException {
+        if (orderEntity.getQuantity() <= 0) {
+            throw new RuntimeException("Order quantity should be at least 1");
+        }
+        if (!inFlight.tryAcquire()) {
+            logger.info("Order intake is full, rejecting order");
+            return null;
+        }
+        try {
+            orderEntity.setStatus(OrderStatus.NEW); // new orders are always in NEW state.
+            orderEntity.setIntakeAcceptedAt(Instant.now());
+            OrderEntity acceptedOrder = transactionOperations.execute(status -> {
+                OrderEntity savedOrder = ordersRepository.save(orderEntity);
+                if (idempotencyKey != null) {
+                    orderIdempotencyStore.record(idempotencyKey, savedOrder.getId());
+                }
+                return savedOrder;
+            });
+            try {
+                enqueue(acceptedOrder);
+            } catch (Exception e) {
+                discard(acceptedOrder);
+                throw e;
+            }
+            return acceptedOrder;
+        } catch (Exception e) {
+            inFlight.release();
+            logger.error("Accepting new order failed. Following error occurred.");
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    // Runs once at startup and then periodically. An order still waiting for intake after stale-after-ms
+    // is not being worked on by this instance's pipeline any more, most likely because of a restart.
+    @Scheduled(fixedDelayString = "${orders.intake.redrive-interval-ms:60000}")
+    public void redriveStaleOrders() {
+        List<OrderEntity> staleOrders = ordersRepository.findByIntakeAcceptedAtLessThanOrderByIdAsc(
+                Instant.now().minusMillis(staleAfterMillis), Limit.of(redriveBatchSize));
+        int redriven = 0;
+        for (OrderEntity order : staleOrders) {
+            if (inPipeline.contains(order.getId())) {
+                continue;
+            }
+            if (!inFlight.tryAcquire()) {
+                break;
+            }
+            try {
+                enqueue(order);
+                redriven++;
+            } catch (Exception e) {
+                inFlight.release();
+                logger.error(String.format("Re-driving order with id %s failed: %s", order.getId(), e.getMessage()));
+                break;
+            }
+        }
+        if (redriven > 0) {
+            logger.info(String.format("Re-drove %s stale orders into the intake pipeline", redriven));
+        }
+    }
+
+    // emitNext would drop the order silently once the pipeline has shut down, so the result is checked here;
+    // only contention with another emitting thread is retried.
+    private void enqueue(OrderEntity order) {
+        inPipeline.add(order.getId());
+        long deadline = System.nanoTime() + EMIT_TIMEOUT.toNanos();
+        Sinks.EmitResult result = acceptedOrders.tryEmitNext(order);
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            result = acceptedOrders.tryEmitNext(order);
+        }
+        if (result.isFailure()) {
+            inPipeline.remove(order.getId());
+            throw new RuntimeException(String.format("Order intake pipeline did not take order with id %s: %s", order.getId(), result));
+        }
+    }
+
+    // The client is told the order was not accepted, so the stored row must not be processed later.
+    // If the delete fails too, the row still has its intake timestamp and the re-drive will pick it up.
+    private void discard(OrderEntity order) {
+        try {
+            ordersRepository.delete(order);
+        } catch (Exception e) {
+            logger.error(String.format("Could not delete order with id %s after it failed to enter the pipeline", order.getId()));
+        }
+    }
+
+    private void leavePipeline(OrderEntity order) {
+        inPipeline.remove(order.getId());
+        inFlight.release();
+    }
+
+    private Mono<OrderEntity> price(OrderEntity order) {
+        return catalogItemCache.getCatalogItem(order.getItemId())
+                .switchIfEmpty(Mono.error(new RuntimeException(String.format("Item with id %s not found in catalog", order.getItemId()))))
+                .map(catalogItem -> {
+                    order.setPricePerUnit(catalogItem.getPricePerUnit());
+                    order.setTotalPrice(order.getQuantity() * catalogItem.getPricePerUnit());
+                    return order;
+                });
+    }
+
+    private Mono<OrderEntity> reserve(OrderEntity order) {
+        return stockReservationCombiner.reserveStock(order.getItemId(), order.getQuantity(), idempotencyKey(order, "reserve"))
+                .thenReturn(order);
+    }
+
+    private Mono<OrderEntity> confirm(OrderEntity order) {
+        order.setStatus(OrderStatus.PROCESSING);
+        order.setIntakeAcceptedAt(null);
+        return Mono.fromCallable(() -> ordersRepository.save(order))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    private String idempotencyKey(OrderEntity order, String operation) {
+        return String.format("order-%s-%s", order.getId(), operation);
+    }
+
+    // A failed stage drops the order from the pipeline instead of failing the whole stream. It is rejected
+    // only when the failure shows no stock can be held for it; after a reserve that timed out or failed
+    // on a 5xx, inventory may already have applied the reservation, so the order keeps its intake
+    // timestamp and the re-drive replays the same order-<id>-reserve key, which inventory will not apply twice.
+    private Mono<OrderEntity> runStage(OrderEntity order, String stage, Function<OrderEntity, Mono<OrderEntity>> step,
+                                       Predicate<Throwable> rejectsOrder) {
+        return Mono.defer(() -> step.apply(order))
+                .onErrorResume(e -> {
+                    if (!rejectsOrder.test(e)) {
+                        logger.error(String.format("Order with id %s failed at %s stage, leaving it to the re-drive: %s", order.getId(), stage, e.getMessage()));
+                        leavePipeline(order);
+                        return Mono.empty();
+                    }
+                    logger.error(String.format("Order with id %s failed at %s stage: %s", order.getId(), stage, e.getMessage()));
+                    order.setStatus(OrderStatus.REJECTED);
+                    order.setIntakeAcceptedAt(null);
+                    return Mono.fromCallable(() -> ordersRepository.save(order))
+                            .subscribeOn(jdbcScheduler)
+                            .doOnError(saveError -> logger.error(String.format("Could not mark order with id %s as rejected", order.getId())))
+                            .onErrorResume(saveError -> Mono.empty())
+                            .doFinally(signal -> leavePipeline(order))
+                            .then(Mono.empty());
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        acceptedOrders.tryEmitComplete();
+        pipeline.dispose();
+    }
+}
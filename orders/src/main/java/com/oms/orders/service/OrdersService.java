@@ -1,18 +1,22 @@
 package com.oms.orders.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.catalog.webClient.InventoryLookupCoalescer;
 import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.orders.dto.OrdersPageDTO;
 import com.oms.orders.entity.OrderEntity;
 import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.entity.OutboxEventEntity;
 import com.oms.orders.repository.OrdersRepository;
-import com.oms.orders.webclient.InventoryServiceWebClient;
-import org.aspectj.weaver.ast.Or;
+import com.oms.orders.repository.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,85 +27,97 @@ public class OrdersService {
 
     private Logger logger = LoggerFactory.getLogger(getClass());
 
-    private InventoryServiceWebClient inventoryServiceWebClient;
+    private OutboxEventRepository outboxEventRepository;
 
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private InventoryLookupCoalescer inventoryLookupCoalescer;
 
-    public OrdersService(OrdersRepository ordersRepository, InventoryServiceWebClient inventoryServiceWebClient) {
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    public OrdersService(OrdersRepository ordersRepository, OutboxEventRepository outboxEventRepository,
+                         InventoryLookupCoalescer inventoryLookupCoalescer, OrderIdempotencyStore orderIdempotencyStore) {
         this.ordersRepository = ordersRepository;
-        this.inventoryServiceWebClient = inventoryServiceWebClient;
+        this.outboxEventRepository = outboxEventRepository;
+        this.inventoryLookupCoalescer = inventoryLookupCoalescer;
+        this.orderIdempotencyStore = orderIdempotencyStore;
     }
 
-    private Boolean isItemInStock(int itemId, int orderQuantity) {
-        InventoryItemDTO inventoryItemDTO = inventoryServiceWebClient.getInventoryItemById(itemId).block();
-        try {
-            if (inventoryItemDTO.getQuantity() < orderQuantity) {
-                return false;
-            }
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+    // Stock changes are written to the outbox in the order's transaction and applied by OutboxRelay.
+    private void recordStockChange(OrderEntity order, String eventType) {
+        outboxEventRepository.save(new OutboxEventEntity(order.getId(), eventType, order.getItemId(), order.getQuantity()));
     }
 
-    private void updateStock(OrderEntity updatedOrder, String opKind) throws Exception {
-        try {
-            int itemID = updatedOrder.getItemId();
-            int previousStock = inventoryServiceWebClient.getInventoryItemById(itemID).block().getQuantity();
-            int orderedQuantity = updatedOrder.getQuantity();
-            int newStock;
-            if (opKind.equals("r")) {
-                newStock = previousStock - orderedQuantity;
-            } else {
-                newStock = previousStock + orderedQuantity;
-            }
-            InventoryItemDTO updatedOrderDTO = new InventoryItemDTO(itemID, newStock);
-            inventoryServiceWebClient.updateInventoryAfterOperation(updatedOrderDTO).block();
-        } catch (Exception e) {
-            logger.error(String.format("Order created but updating stock failed. Manually update the stock. Last Order: %s", objectMapper.writeValueAsString(updatedOrder)));
-            e.printStackTrace();
-            throw new RuntimeException(String.format("Order created but updating stock failed. Following error occurred: %s", e.getMessage()));
+    private void checkItemInStock(OrderEntity orderEntity) throws RuntimeException {
+        InventoryItemDTO inventoryItem = inventoryLookupCoalescer.getInventoryItemById(orderEntity.getItemId()).block();
+        if (inventoryItem == null) {
+            throw new RuntimeException(String.format("No item found with id %s", orderEntity.getItemId()));
+        }
+        if (inventoryItem.getQuantity() < orderEntity.getQuantity()) {
+            throw new RuntimeException(String.format("Item with id %s not in stock", orderEntity.getItemId()));
         }
-    }
-
-    private boolean isOrderStatusValid(String status) {
-        return status.equals(OrderStatus.NEW) ||
-                status.equals(OrderStatus.PROCESSING) ||
-                status.equals(OrderStatus.SHIPPED) ||
-                status.equals(OrderStatus.OU_FOR_DELIVERY) ||
-                status.equals(OrderStatus.DELIVERED) ||
-                status.equals(OrderStatus.RETURN_PLACED) ||
-                status.equals(OrderStatus.RETURNED);
     }
 
     private void checkOrderValidity(OrderEntity orderEntity) throws RuntimeException {
-        String status = orderEntity.getStatus();
-        if (!isOrderStatusValid(status)) {
-            throw new RuntimeException(String.format("Not a defined status: %s", status));
+        if (orderEntity.getStatus() == null) {
+            throw new RuntimeException("Not a defined status: null");
         }
         if (orderEntity.getQuantity() <= 0) {
             throw new RuntimeException("Order quantity should be at least 1");
         }
-        if (!isItemInStock(orderEntity.getItemId(), orderEntity.getQuantity())) {
-            throw new RuntimeException(String.format("Item with id %s not in stock", orderEntity.getItemId()));
-        }
     }
 
+    @Transactional
     public OrderEntity createNewOrder(OrderEntity orderEntity) throws RuntimeException {
+        return createNewOrder(orderEntity, null);
+    }
+
+    // With an idempotency key, a concurrent request using the same key fails on the key's primary key
+    // and the whole transaction, including its outbox reservation, is rolled back.
+    @Transactional
+    public OrderEntity createNewOrder(OrderEntity orderEntity, String idempotencyKey) throws RuntimeException {
        try {
            orderEntity.setStatus(OrderStatus.NEW); // new orders are always in NEW state.
            checkOrderValidity(orderEntity);
+           checkItemInStock(orderEntity);
            OrderEntity createdOrder = ordersRepository.save(orderEntity);
-           updateStock(createdOrder, "r");
+           recordStockChange(createdOrder, OutboxEventEntity.RESERVE_STOCK);
+           if (idempotencyKey != null) {
+               orderIdempotencyStore.record(idempotencyKey, createdOrder.getId());
+           }
            return createdOrder;
        } catch (Exception e) {
            logger.error("Creating new order failed. Following error occurred.");
            e.printStackTrace();
-           throw new RuntimeException(e.getMessage());
+           throw new RuntimeException(e.getMessage(), e);
        }
     }
 
+    // Called by OutboxRelay when inventory refuses an order's reservation for lack of stock. Nothing was
+    // reserved, so the order is rejected and its reserve event removed in one transaction, with no release.
+    @Transactional
+    public void rejectUnreservedOrder(OutboxEventEntity reserveEvent, String reason) {
+        OrderEntity order = ordersRepository.findById(reserveEvent.getOrderId()).orElse(null);
+        if (order == null || order.getStatus() == OrderStatus.REJECTED) {
+            // Deleted or rejected through an update while the reservation was still queued; the release
+            // queued behind it has nothing to give back.
+            outboxEventRepository.deleteAll(outboxEventRepository.findByOrderIdAndEventTypeAndStatus(
+                    reserveEvent.getOrderId(), OutboxEventEntity.RELEASE_STOCK, OutboxEventEntity.PENDING));
+            outboxEventRepository.delete(reserveEvent);
+            return;
+        }
+        if (!order.getStatus().canTransitionTo(OrderStatus.REJECTED)) {
+            reserveEvent.setStatus(OutboxEventEntity.FAILED);
+            reserveEvent.setLastError(reason);
+            outboxEventRepository.save(reserveEvent);
+            logger.error(String.format("Reservation for order with id %s was refused but the order is already '%s'. Manually check the order.",
+                    order.getId(), order.getStatus().getValue()));
+            return;
+        }
+        order.setStatus(OrderStatus.REJECTED);
+        ordersRepository.save(order);
+        logger.info(String.format("Order with id %s rejected: %s", order.getId(), reason));
+        outboxEventRepository.delete(reserveEvent);
+    }
+
     public List<OrderEntity> getAllOrders() throws RuntimeException {
         try {
             return ordersRepository.findAll();
@@ -122,12 +138,23 @@ public class OrdersService {
         }
     }
 
+    // An order that still holds stock gets a release queued behind its reservation in the delete's
+    // transaction. The relay sends an order's events in order, so the stock comes back whether the
+    // reservation was already delivered or is still pending; a pending one refused for lack of stock
+    // takes the release with it. Stock of an order that has shipped is not given back.
+    @Transactional
     public Boolean deleteOrderById(int id) throws RuntimeException {
         try {
             OrderEntity order =  ordersRepository.findById(id).orElse(null);
             if (order == null) {
                 return false;
             }
+            if (order.getIntakeAcceptedAt() != null) {
+                throw new RuntimeException(String.format("Order with id %s is still being processed. Try again later.", id));
+            }
+            if (order.getStatus() == OrderStatus.NEW || order.getStatus() == OrderStatus.PROCESSING) {
+                recordStockChange(order, OutboxEventEntity.RELEASE_STOCK);
+            }
             ordersRepository.deleteById(id);
             return true;
         } catch (Exception e) {
@@ -143,22 +170,30 @@ public class OrdersService {
             logger.info(String.format("Update did not happen. Could not find order with id %s", updatedEntity.getId()));
             return false;
         }
+        if (existingOrder.getIntakeAcceptedAt() != null) {
+            throw new RuntimeException(String.format("Order with id %s is still being processed. Try again later.", existingOrder.getId()));
+        }
         boolean sameItemId = updatedEntity.getItemId() == existingOrder.getItemId();
         boolean sameQuantity = updatedEntity.getQuantity() == existingOrder.getQuantity();
         boolean samePricePerUnit = Double.compare(updatedEntity.getPricePerUnit(), existingOrder.getPricePerUnit()) == 0;
         boolean sameTotalPrice = Math.abs(updatedEntity.getTotalPrice() - existingOrder.getTotalPrice()) < 0.0001;
         boolean sameContact = updatedEntity.getContact().equals(existingOrder.getContact());
-        boolean statusChanged = !updatedEntity.getStatus().equals(existingOrder.getStatus());
+        boolean statusChanged = updatedEntity.getStatus() != existingOrder.getStatus();
 
         if (!(sameItemId && sameQuantity && samePricePerUnit && sameTotalPrice && sameContact && statusChanged)) {
             throw new RuntimeException("Cannot update order. Only order status change is supported for update.");
         }
-        if (!isOrderStatusValid(updatedEntity.getStatus())) {
-            throw new RuntimeException(String.format("Not a defined status: %s", updatedEntity.getStatus()));
+        if (updatedEntity.getStatus() == null) {
+            throw new RuntimeException("Not a defined status: null");
+        }
+        if (!existingOrder.getStatus().canTransitionTo(updatedEntity.getStatus())) {
+            throw new RuntimeException(String.format("Cannot change order status from '%s' to '%s'",
+                    existingOrder.getStatus().getValue(), updatedEntity.getStatus().getValue()));
         }
         return true;
     }
 
+    @Transactional
     public OrderEntity updateOrder(int id, OrderEntity entityToUpdate) throws RuntimeException {
         try {
             entityToUpdate.setId(id);
@@ -166,8 +201,10 @@ public class OrdersService {
                 return null;
             }
             OrderEntity updatedOrder = ordersRepository.save(entityToUpdate);
-            if (updatedOrder.getStatus().equals(OrderStatus.RETURNED)) {
-                updateStock(updatedOrder, "a");
+            // Both give the reserved stock back; the relay sends an order's events in order, so a
+            // rejection never overtakes the reservation it undoes.
+            if (updatedOrder.getStatus() == OrderStatus.RETURNED || updatedOrder.getStatus() == OrderStatus.REJECTED) {
+                recordStockChange(updatedOrder, OutboxEventEntity.RELEASE_STOCK);
             }
             return updatedOrder;
         } catch (Exception e) {
@@ -178,10 +215,10 @@ public class OrdersService {
     }
 
 
-    public List<OrderEntity> findAllOrderByStatus(String status) {
+    public List<OrderEntity> findAllOrderByStatus(OrderStatus status) {
         try {
-            if (!isOrderStatusValid(status)) {
-                throw new RuntimeException(String.format("Not a defined status: %s", status));
+            if (status == null) {
+                throw new RuntimeException("Not a defined status: null");
             }
             List<OrderEntity> orders = ordersRepository.findByStatus(status);
             return orders;
@@ -191,4 +228,26 @@ public class OrdersService {
             throw new RuntimeException(e.getMessage());
         }
     }
+
+    // Served by the (order_status, id) index, so each page costs the same however deep the cursor is.
+    public OrdersPageDTO findOrdersPageByStatus(OrderStatus status, int afterId, int limit) {
+        try {
+            if (status == null) {
+                throw new RuntimeException("Not a defined status: null");
+            }
+            // One extra row tells us whether another page exists without a count query.
+            List<OrderEntity> rows = ordersRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, Limit.of(limit + 1));
+            Integer nextCursor = null;
+            List<OrderEntity> pageItems = rows;
+            if (rows.size() > limit) {
+                pageItems = new ArrayList<>(rows.subList(0, limit));
+                nextCursor = pageItems.get(limit - 1).getId();
+            }
+            return new OrdersPageDTO(pageItems, nextCursor);
+        } catch (Exception e) {
+            logger.error(String.format("Finding page of orders by status %s failed. The following error occurred: ", status));
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
 }
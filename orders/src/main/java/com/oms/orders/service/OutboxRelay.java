@@ -0,0 +1,118 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OutboxEventEntity;
+import com.oms.orders.repository.OutboxEventRepository;
+import com.oms.orders.webclient.InventoryClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Drains stock events written by OrdersService to the inventory service. Delivery is at least once;
+// the idempotency key on each event lets inventory ignore a repeat of a change it already applied.
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private InventoryClient inventoryClient;
+
+    private OrdersService ordersService;
+
+    private int batchSize;
+
+    private int concurrency;
+
+    private int maxAttempts;
+
+    private long retryBackoffMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       InventoryClient inventoryClient,
+                       OrdersService ordersService,
+                       @Value("${orders.outbox.batch-size:100}") int batchSize,
+                       @Value("${orders.outbox.concurrency:8}") int concurrency,
+                       @Value("${orders.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${orders.outbox.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.inventoryClient = inventoryClient;
+        this.ordersService = ordersService;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:500}")
+    public void relayPendingEvents() {
+        List<OutboxEventEntity> batch;
+        do {
+            batch = outboxEventRepository.findDueInOrderOfEachOrder(
+                    OutboxEventEntity.PENDING, Instant.now(), Limit.of(batchSize));
+            relayBatch(batch);
+        } while (batch.size() == batchSize);
+    }
+
+    private void relayBatch(List<OutboxEventEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<OutboxEventEntity, Throwable> failures = new ConcurrentHashMap<>();
+        List<OutboxEventEntity> delivered = Flux.fromIterable(batch)
+                .flatMap(event -> send(event)
+                        .thenReturn(event)
+                        .onErrorResume(e -> {
+                            failures.put(event, e);
+                            return Mono.empty();
+                        }), concurrency)
+                .collectList()
+                .block();
+        outboxEventRepository.deleteAllInBatch(delivered);
+        failures.forEach(this::recordFailedAttempt);
+        logger.info(String.format("Relayed %s of %s outbox events to inventory", delivered.size(), batch.size()));
+    }
+
+    private Mono<Void> send(OutboxEventEntity event) {
+        if (event.getEventType().equals(OutboxEventEntity.RESERVE_STOCK)) {
+            return inventoryClient.reserveStock(event.getItemId(), event.getQuantity(), event.getIdempotencyKey());
+        }
+        return inventoryClient.releaseStock(event.getItemId(), event.getQuantity(), event.getIdempotencyKey());
+    }
+
+    // A reservation refused for lack of stock will be refused again, so it is not retried.
+    private void recordFailedAttempt(OutboxEventEntity event, Throwable error) {
+        if (error instanceof OutOfStockException && event.getEventType().equals(OutboxEventEntity.RESERVE_STOCK)) {
+            ordersService.rejectUnreservedOrder(event, error.getMessage());
+            return;
+        }
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String message = String.valueOf(error.getMessage());
+        event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEventEntity.FAILED);
+            logger.error(String.format("Giving up on %s for order %s after %s attempts. Manually update the stock.",
+                    event.getEventType(), event.getOrderId(), attempts));
+        } else {
+            long backoffMillis = retryBackoffMillis * (1L << Math.min(attempts - 1, 10));
+            event.setNextAttemptAt(Instant.now().plusMillis(backoffMillis));
+            logger.info(String.format("Relaying %s for order %s failed, retrying in %s ms",
+                    event.getEventType(), event.getOrderId(), backoffMillis));
+        }
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,111 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogItemCache;
+import com.oms.orders.webclient.InventoryClient;
+import com.oms.orders.webclient.StockReservationCombiner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Service
+public class ReactiveOrdersService {
+
+    private static final int RELEASE_ATTEMPTS = 3;
+
+    private static final Duration RELEASE_BACKOFF = Duration.ofMillis(100);
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private OrdersRepository ordersRepository;
+
+    private InventoryClient inventoryClient;
+
+    private CatalogItemCache catalogItemCache;
+
+    private StockReservationCombiner stockReservationCombiner;
+
+    private Scheduler jdbcScheduler;
+
+    public ReactiveOrdersService(OrdersRepository ordersRepository, InventoryClient inventoryClient,
+                                 CatalogItemCache catalogItemCache, StockReservationCombiner stockReservationCombiner,
+                                 @Qualifier("ordersJdbcScheduler") Scheduler jdbcScheduler) {
+        this.ordersRepository = ordersRepository;
+        this.inventoryClient = inventoryClient;
+        this.catalogItemCache = catalogItemCache;
+        this.stockReservationCombiner = stockReservationCombiner;
+        this.jdbcScheduler = jdbcScheduler;
+    }
+
+    public Mono<OrderEntity> createNewOrder(OrderEntity orderEntity) {
+        orderEntity.setStatus(OrderStatus.NEW); // new orders are always in NEW state.
+        if (orderEntity.getQuantity() <= 0) {
+            return Mono.error(new RuntimeException("Order quantity should be at least 1"));
+        }
+        int itemId = orderEntity.getItemId();
+        int quantity = orderEntity.getQuantity();
+
+        // The price lookup and the stock reservation are independent, so both calls are in flight at once.
+        Mono<CatalogDTO> catalogItem = catalogItemCache.getCatalogItem(itemId)
+                .switchIfEmpty(Mono.error(new RuntimeException(String.format("Item with id %s not found in catalog", itemId))));
+        // The order has no id yet, so the reservation gets a key of its own; its release is keyed from it.
+        String reservationKey = UUID.randomUUID().toString();
+        Mono<Boolean> reservation = stockReservationCombiner.reserveStock(itemId, quantity, reservationKey).thenReturn(true);
+
+        return Mono.zip(catalogItem.materialize(), reservation.materialize())
+                .flatMap(signals -> {
+                    Signal<CatalogDTO> catalogSignal = signals.getT1();
+                    Signal<Boolean> reservationSignal = signals.getT2();
+                    if (reservationSignal.isOnError()) {
+                        Throwable error = reservationSignal.getThrowable();
+                        if (error instanceof OutOfStockException) {
+                            return Mono.error(error);
+                        }
+                        return releaseUncertainReservation(orderEntity, reservationKey).then(Mono.error(error));
+                    }
+                    if (catalogSignal.isOnError()) {
+                        return releaseStock(orderEntity, reservationKey).then(Mono.error(catalogSignal.getThrowable()));
+                    }
+                    double pricePerUnit = catalogSignal.get().getPricePerUnit();
+                    orderEntity.setPricePerUnit(pricePerUnit);
+                    orderEntity.setTotalPrice(quantity * pricePerUnit);
+                    return Mono.fromCallable(() -> ordersRepository.save(orderEntity))
+                            .subscribeOn(jdbcScheduler)
+                            .onErrorResume(e -> releaseStock(orderEntity, reservationKey).then(Mono.error(e)));
+                })
+                .doOnError(e -> logger.error(String.format("Creating new order failed. Following error occurred: %s", e.getMessage())));
+    }
+
+    // A reservation that failed without a 409 may still have been applied. Replaying it under the same key
+    // settles the outcome without reserving twice; only a reservation known to be applied is then released,
+    // since a release is not checked against a reservation and would otherwise add stock.
+    private Mono<Void> releaseUncertainReservation(OrderEntity orderEntity, String reservationKey) {
+        return inventoryClient.reserveStock(orderEntity.getItemId(), orderEntity.getQuantity(), reservationKey)
+                .retryWhen(Retry.backoff(RELEASE_ATTEMPTS, RELEASE_BACKOFF).filter(e -> !(e instanceof OutOfStockException)))
+                .thenReturn(true)
+                .onErrorResume(OutOfStockException.class, e -> Mono.just(false))
+                .flatMap(applied -> applied ? releaseStock(orderEntity, reservationKey) : Mono.<Void>empty())
+                .doOnError(e -> logger.error(String.format("Settling reservation %s for item with id %s failed. Manually update the stock.", reservationKey, orderEntity.getItemId())))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    // The release carries a key derived from the reservation's, so retrying it cannot add the stock back twice.
+    private Mono<Void> releaseStock(OrderEntity orderEntity, String reservationKey) {
+        return inventoryClient.releaseStock(orderEntity.getItemId(), orderEntity.getQuantity(), reservationKey + "-release")
+                .retryWhen(Retry.backoff(RELEASE_ATTEMPTS, RELEASE_BACKOFF))
+                .doOnError(e -> logger.error(String.format("Releasing stock for item with id %s failed. Manually update the stock.", orderEntity.getItemId())))
+                .onErrorResume(e -> Mono.empty());
+    }
+}
@@ -0,0 +1,15 @@
+package com.oms.orders.webclient;
+
+import com.oms.catalog.dto.CatalogDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Orders' view of the catalog service: CatalogServiceWebClient over HTTP, or InProcessCatalogClient
+// when all services run in one JVM (orders.monolith.enabled=true).
+public interface CatalogClient {
+
+    Mono<CatalogDTO> getCatalogItem(int itemId);
+
+    Mono<List<CatalogDTO>> getCatalogItems(List<Integer> itemIds);
+}
@@ -0,0 +1,43 @@
+package com.oms.orders.webclient;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oms.catalog.dto.CatalogDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Concurrent misses for an item share one catalog call; entries past the refresh interval are
+// served while a background reload runs, and are only dropped once the TTL expires.
+@Component
+public class CatalogItemCache {
+
+    private AsyncLoadingCache<Integer, CatalogDTO> cache;
+
+    public CatalogItemCache(CatalogClient catalogClient,
+                            @Value("${orders.catalog-cache.max-size:10000}") long maxSize,
+                            @Value("${orders.catalog-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${orders.catalog-cache.refresh-after-seconds:30}") long refreshAfterSeconds,
+                            MeterRegistry meterRegistry) {
+        AsyncLoadingCache<Integer, CatalogDTO> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(refreshAfterSeconds))
+                .recordStats()
+                .buildAsync((itemId, executor) -> catalogClient.getCatalogItem(itemId).toFuture());
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogPrices");
+    }
+
+    public Mono<CatalogDTO> getCatalogItem(int itemId) {
+        // The future is shared between callers, so one caller cancelling must not cancel it for the rest.
+        return Mono.fromFuture(cache.get(itemId), true);
+    }
+
+    public void invalidate(int itemId) {
+        cache.synchronous().invalidate(itemId);
+    }
+}
@@ -5,12 +5,16 @@ import com.oms.catalog.dto.CatalogDTO;
 import com.oms.orders.dto.OrderDTO;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Service
-public class CatalogServiceWebClient {
+@ConditionalOnProperty(name = "orders.monolith.enabled", havingValue = "false", matchIfMissing = true)
+public class CatalogServiceWebClient implements CatalogClient {
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
 
     private ObjectMapper om = new ObjectMapper();
@@ -21,6 +25,7 @@ public class CatalogServiceWebClient {
         this.webClient = webClient;
     }
 
+    @Override
     public Mono<CatalogDTO> getCatalogItem(int itemId) {
         String correlationId = MDC.get(CORRELATION_ID_HEADER);
         String uri = String.format("api/v1/catalog/items/%s", itemId);
@@ -37,4 +42,22 @@ public class CatalogServiceWebClient {
                     }
                 });
     }
+
+    @Override
+    public Mono<List<CatalogDTO>> getCatalogItems(List<Integer> itemIds) {
+        String correlationId = MDC.get(CORRELATION_ID_HEADER);
+        return webClient.post()
+                .uri("api/v1/catalog/items/batch")
+                .header(CORRELATION_ID_HEADER, correlationId)
+                .bodyValue(itemIds)
+                .retrieve()
+                .toEntityList(CatalogDTO.class)
+                .flatMap(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        return Mono.just(response.getBody());
+                    } else {
+                        return Mono.error(new RuntimeException(String.format("Error fetching items from catalog. Following error occurred: Status code: %s and Message: %s", response.getStatusCode(), response.getBody())));
+                    }
+                });
+    }
 }
@@ -0,0 +1,45 @@
+package com.oms.orders.webclient;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.entity.CatalogItemEntity;
+import com.oms.catalog.service.CatalogService;
+import com.oms.catalog.webClient.InProcessCalls;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Calls the CatalogService of the catalog context running in the same JVM.
+@Service
+@ConditionalOnProperty(name = "orders.monolith.enabled", havingValue = "true")
+public class InProcessCatalogClient implements CatalogClient {
+
+    private CatalogService catalogService;
+
+    public InProcessCatalogClient(CatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    @Override
+    public Mono<CatalogDTO> getCatalogItem(int itemId) {
+        return InProcessCalls.call(() -> {
+            CatalogItemEntity item = catalogService.getItemById(itemId);
+            if (item == null) {
+                throw new RuntimeException(String.format("Error fetching the item from catalog. Item with id %s not found", itemId));
+            }
+            return toDTO(item);
+        });
+    }
+
+    @Override
+    public Mono<List<CatalogDTO>> getCatalogItems(List<Integer> itemIds) {
+        return InProcessCalls.call(() -> catalogService.getItemsByIds(itemIds).stream().map(this::toDTO).toList());
+    }
+
+    private CatalogDTO toDTO(CatalogItemEntity item) {
+        CatalogDTO catalogDTO = new CatalogDTO(item.getId(), item.getName(), item.getPricePerUnit(), item.getCategory());
+        catalogDTO.setAvailableStock(item.getAvailableStock());
+        return catalogDTO;
+    }
+}
@@ -0,0 +1,26 @@
+package com.oms.orders.webclient;
+
+import com.oms.inventory.dto.InventoryItemDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Orders' view of the inventory service: InventoryServiceWebClient over HTTP, or InProcessInventoryClient
+// when all services run in one JVM (orders.monolith.enabled=true).
+public interface InventoryClient {
+
+    Mono<InventoryItemDTO> getInventoryItemById(int itemId);
+
+    Mono<List<InventoryItemDTO>> getInventoryItemsByIds(List<Integer> itemIds);
+
+    Mono<Void> updateInventoryAfterOperation(InventoryItemDTO inventoryItemDTO);
+
+    Mono<Void> reserveStock(int itemId, int quantity);
+
+    // One call can reserve for several orders; it then carries their keys comma-separated.
+    Mono<Void> reserveStock(int itemId, int quantity, String idempotencyKey);
+
+    Mono<Void> releaseStock(int itemId, int quantity);
+
+    Mono<Void> releaseStock(int itemId, int quantity, String idempotencyKey);
+}
@@ -1,19 +1,22 @@
 package com.oms.orders.webclient;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.catalog.webClient.OutOfStockException;
 import com.oms.inventory.dto.InventoryItemDTO;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Service
-public class InventoryServiceWebClient {
+@ConditionalOnProperty(name = "orders.monolith.enabled", havingValue = "false", matchIfMissing = true)
+public class InventoryServiceWebClient implements InventoryClient {
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
-
-    private ObjectMapper om = new ObjectMapper();
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private WebClient webClient;
 
@@ -21,6 +24,7 @@ public class InventoryServiceWebClient {
         this.webClient = webClient;
     }
 
+    @Override
     public Mono<InventoryItemDTO> getInventoryItemById(int itemId) {
         String uri = String.format("/api/v1/inventory/items/%s", itemId);
         String correlationID = MDC.get(CORRELATION_ID_HEADER);
@@ -37,15 +41,79 @@ public class InventoryServiceWebClient {
                 });
     }
 
-    public Mono<Void> updateInventoryAfterOperation(InventoryItemDTO inventoryItemDTO) throws JsonProcessingException {
+    @Override
+    public Mono<List<InventoryItemDTO>> getInventoryItemsByIds(List<Integer> itemIds) {
+        String correlationID = MDC.get(CORRELATION_ID_HEADER);
+        return webClient.post()
+                .uri("/api/v1/inventory/items/batch")
+                .header(CORRELATION_ID_HEADER, correlationID)
+                .bodyValue(itemIds)
+                .retrieve().toEntityList(InventoryItemDTO.class)
+                .flatMap(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        return Mono.just(response.getBody());
+                    } else {
+                        return Mono.error(new RuntimeException(String.format("Error occurred. Response status is %s and message %s", response.getStatusCode(), response.getBody())));
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Void> updateInventoryAfterOperation(InventoryItemDTO inventoryItemDTO) {
         String uri = "/api/v1/inventory/items";
         String correlationID = MDC.get(CORRELATION_ID_HEADER);
 
         return webClient.patch()
                 .uri(uri)
                 .header(CORRELATION_ID_HEADER, correlationID)
-                .bodyValue(om.writeValueAsString(inventoryItemDTO))
+                .bodyValue(inventoryItemDTO)
+                .retrieve()
+                .toBodilessEntity()
+                .flatMap(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        return Mono.empty();
+                    } else {
+                        return Mono.error(new RuntimeException(
+                                String.format("Error occurred. Response status is %s", response.getStatusCode())
+                        ));
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Void> reserveStock(int itemId, int quantity) {
+        return changeStock(itemId, quantity, "reserve", null);
+    }
+
+    @Override
+    public Mono<Void> reserveStock(int itemId, int quantity, String idempotencyKey) {
+        return changeStock(itemId, quantity, "reserve", idempotencyKey);
+    }
+
+    @Override
+    public Mono<Void> releaseStock(int itemId, int quantity) {
+        return changeStock(itemId, quantity, "release", null);
+    }
+
+    @Override
+    public Mono<Void> releaseStock(int itemId, int quantity, String idempotencyKey) {
+        return changeStock(itemId, quantity, "release", idempotencyKey);
+    }
+
+    private Mono<Void> changeStock(int itemId, int quantity, String operation, String idempotencyKey) {
+        String uri = String.format("/api/v1/inventory/items/%s/%s?quantity=%s", itemId, operation, quantity);
+        String correlationID = MDC.get(CORRELATION_ID_HEADER);
+
+        WebClient.RequestBodySpec request = webClient.post()
+                .uri(uri)
+                .header(CORRELATION_ID_HEADER, correlationID);
+        if (idempotencyKey != null) {
+            request = request.header(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return request
                 .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.CONFLICT), response -> Mono.error(new OutOfStockException(
+                        String.format("Item with id %s not in stock", itemId))))
                 .toBodilessEntity()
                 .flatMap(response -> {
                     if (response.getStatusCode().is2xxSuccessful()) {
@@ -0,0 +1,162 @@
+package com.oms.orders.webclient;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Collects stock reservations for a short window (or until the batch is full) and reserves the
+// combined quantity of each item with one inventory call, so a hot item sees one row update per
+// window instead of one per order. The combined call carries the idempotency key of every order in it.
+// When it is refused for lack of stock, or fails in a way that leaves unclear whether it was applied, the
+// waiting reservations are retried one at a time on their own keys in arrival order: inventory recorded
+// the keys of an applied combined call, so those retries cannot reserve the same order twice.
+@Component
+public class StockReservationCombiner {
+
+    private static class PendingReservation {
+        private final int quantity;
+        private final String idempotencyKey;
+        private final Sinks.Empty<Void> result = Sinks.empty();
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        PendingReservation(int quantity, String idempotencyKey) {
+            this.quantity = quantity;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private InventoryClient inventoryClient;
+
+    private long windowMillis;
+
+    private int maxBatchSize;
+
+    private Scheduler scheduler = Schedulers.parallel();
+
+    private Map<Integer, List<PendingReservation>> pending = new HashMap<>();
+
+    private int pendingCount;
+
+    private DistributionSummary batchSize;
+
+    private Timer reservationLatency;
+
+    public StockReservationCombiner(InventoryClient inventoryClient,
+                                    @Value("${orders.stock-combiner.window-ms:5}") long windowMillis,
+                                    @Value("${orders.stock-combiner.max-batch-size:500}") int maxBatchSize,
+                                    MeterRegistry meterRegistry) {
+        this.inventoryClient = inventoryClient;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("orders.stock.combiner.batch.size")
+                .description("Reservations combined into one inventory call")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.reservationLatency = Timer.builder("orders.stock.combiner.latency")
+                .description("Time from queueing a reservation to its outcome")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    // Registers the reservation straight away; the returned Mono completes once it has been applied.
+    public Mono<Void> reserveStock(int itemId, int quantity, String idempotencyKey) {
+        PendingReservation reservation = new PendingReservation(quantity, idempotencyKey);
+        Map<Integer, List<PendingReservation>> fullBatch = null;
+        synchronized (this) {
+            Map<Integer, List<PendingReservation>> current = pending;
+            current.computeIfAbsent(itemId, id -> new ArrayList<>()).add(reservation);
+            pendingCount++;
+            if (pendingCount == 1) {
+                scheduler.schedule(() -> flushExpired(current), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            if (pendingCount >= maxBatchSize) {
+                fullBatch = takePending();
+            }
+        }
+        if (fullBatch != null) {
+            flush(fullBatch);
+        }
+        return reservation.result.asMono();
+    }
+
+    // The timer belongs to one window; if that window was already flushed because it filled up,
+    // the timer must not cut short the window that replaced it.
+    private void flushExpired(Map<Integer, List<PendingReservation>> expired) {
+        synchronized (this) {
+            if (pending != expired) {
+                return;
+            }
+            takePending();
+        }
+        flush(expired);
+    }
+
+    private Map<Integer, List<PendingReservation>> takePending() {
+        Map<Integer, List<PendingReservation>> batch = pending;
+        pending = new HashMap<>();
+        pendingCount = 0;
+        return batch;
+    }
+
+    private void flush(Map<Integer, List<PendingReservation>> batch) {
+        batch.forEach(this::reserveCombined);
+    }
+
+    private void reserveCombined(int itemId, List<PendingReservation> reservations) {
+        batchSize.record(reservations.size());
+        int combinedQuantity = reservations.stream().mapToInt(reservation -> reservation.quantity).sum();
+        String combinedKeys = reservations.stream().map(reservation -> reservation.idempotencyKey).collect(Collectors.joining(", "));
+        inventoryClient.reserveStock(itemId, combinedQuantity, combinedKeys)
+                .subscribe(
+                        null,
+                        error -> {
+                            if (reservations.size() > 1) {
+                                logger.info(String.format("Combined reservation of %s units of item with id %s failed (%s), reserving %s orders one by one",
+                                        combinedQuantity, itemId, error.getMessage(), reservations.size()));
+                                reserveOneByOne(itemId, reservations);
+                            } else {
+                                reservations.forEach(reservation -> fail(reservation, error));
+                            }
+                        },
+                        () -> reservations.forEach(this::succeed));
+    }
+
+    private void reserveOneByOne(int itemId, List<PendingReservation> reservations) {
+        Flux.fromIterable(reservations)
+                .concatMap(reservation -> inventoryClient.reserveStock(itemId, reservation.quantity, reservation.idempotencyKey)
+                        .doOnSuccess(ignored -> succeed(reservation))
+                        .onErrorResume(error -> {
+                            fail(reservation, error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    private void succeed(PendingReservation reservation) {
+        reservationLatency.record(System.nanoTime() - reservation.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        reservation.result.tryEmitEmpty();
+    }
+
+    private void fail(PendingReservation reservation, Throwable error) {
+        reservationLatency.record(System.nanoTime() - reservation.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        reservation.result.tryEmitError(error);
+    }
+}
@@ -1,28 +1,63 @@
 package com.oms.orders.webclient;
 
+import com.oms.catalog.webClient.DownstreamClientFactory;
+import com.oms.catalog.webClient.DownstreamProperties;
+import com.oms.catalog.webClient.InProcessInventoryClient;
+import com.oms.catalog.webClient.InventoryLookupCoalescer;
+import com.oms.inventory.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean
+    @ConfigurationProperties(prefix = "orders")
+    public DownstreamProperties downstreamProperties() {
+        return new DownstreamProperties();
+    }
+
+    @Bean
+    public DownstreamClientFactory downstreamClientFactory(MeterRegistry meterRegistry) {
+        return new DownstreamClientFactory("orders", meterRegistry);
+    }
+
     @Bean
     @Qualifier("inventoryServiceForOrders")
-    public WebClient inventoryServiceWebclient(WebClient.Builder builder) {
-        return builder.baseUrl("http://localhost:8081")
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+    public WebClient inventoryServiceWebclient(WebClient.Builder builder, DownstreamProperties properties, DownstreamClientFactory factory) {
+        return factory.create(builder, "inventory", properties.get("inventory"));
     }
 
     @Bean
     @Qualifier("catalogServiceForOrders")
-    public WebClient catalogServiceWebclient(WebClient.Builder builder) {
-        return builder.baseUrl("http://localhost:8080")
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+    public WebClient catalogServiceWebclient(WebClient.Builder builder, DownstreamProperties properties, DownstreamClientFactory factory) {
+        return factory.create(builder, "catalog", properties.get("catalog"));
+    }
+
+    @Bean
+    public InventoryLookupCoalescer inventoryLookupCoalescer(InventoryClient inventoryClient,
+                                                             @Value("${orders.inventory-coalescer.window-ms:2}") long windowMillis,
+                                                             @Value("${orders.inventory-coalescer.max-batch-size:500}") int maxBatchSize) {
+        return new InventoryLookupCoalescer(inventoryClient::getInventoryItemsByIds, windowMillis, maxBatchSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "orders.monolith.enabled", havingValue = "true")
+    public InventoryClient inProcessInventoryClient(InventoryService inventoryService) {
+        return new InProcessInventoryClientForOrders(inventoryService);
+    }
+
+    // Catalog's in-process client already has every call orders makes; this only gives it orders' interface.
+    private static class InProcessInventoryClientForOrders extends InProcessInventoryClient implements InventoryClient {
+
+        InProcessInventoryClientForOrders(InventoryService inventoryService) {
+            super(inventoryService);
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.oms.orders;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.entity.CatalogItemEntity;
+import com.oms.catalog.service.CatalogService;
+import com.oms.catalog.webClient.InProcessInventoryClient;
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.orders.webclient.CatalogClient;
+import com.oms.orders.webclient.InProcessCatalogClient;
+import com.oms.orders.webclient.InventoryClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+class MonolithApplicationTests {
+
+    private static List<ConfigurableApplicationContext> contexts;
+
+    @BeforeAll
+    static void startServices() {
+        contexts = MonolithApplication.start(new String[]{
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:monolith;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+        });
+    }
+
+    @AfterAll
+    static void stopServices() {
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+    }
+
+    @Test
+    void eachServiceLoadsItsOwnConfiguration() {
+        Assertions.assertEquals("inventory", contexts.get(0).getEnvironment().getProperty("spring.application.name"));
+        Assertions.assertEquals("catalog", contexts.get(1).getEnvironment().getProperty("spring.application.name"));
+        Assertions.assertEquals("orders", contexts.get(2).getEnvironment().getProperty("spring.application.name"));
+    }
+
+    @Test
+    void ordersAndCatalogCallDownstreamsInProcess() {
+        ConfigurableApplicationContext orders = contexts.get(2);
+        Assertions.assertInstanceOf(InProcessInventoryClient.class, orders.getBean(InventoryClient.class));
+        Assertions.assertInstanceOf(InProcessCatalogClient.class, orders.getBean(CatalogClient.class));
+        Assertions.assertInstanceOf(InProcessInventoryClient.class,
+                contexts.get(1).getBean(com.oms.catalog.webClient.InventoryClient.class));
+    }
+
+    @Test
+    void reservesStockForCatalogItemWithoutHttp() {
+        CatalogItemEntity created = contexts.get(1).getBean(CatalogService.class)
+                .addNewItem(new CatalogItemEntity("Ceramic mug", 12.5, "kitchen"));
+        InventoryClient inventoryClient = contexts.get(2).getBean(InventoryClient.class);
+        CatalogClient catalogClient = contexts.get(2).getBean(CatalogClient.class);
+
+        StepVerifier.create(inventoryClient.updateInventoryAfterOperation(new InventoryItemDTO(created.getId(), 5)))
+                .verifyComplete();
+        StepVerifier.create(inventoryClient.reserveStock(created.getId(), 3)).verifyComplete();
+        StepVerifier.create(inventoryClient.reserveStock(created.getId(), 3)).verifyError(OutOfStockException.class);
+
+        CatalogDTO item = catalogClient.getCatalogItem(created.getId()).block();
+        Assertions.assertEquals("Ceramic mug", item.getName());
+        Assertions.assertEquals(2, item.getAvailableStock());
+    }
+}
@@ -0,0 +1,75 @@
+package com.oms.orders.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.service.BulkOrdersService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BulkOrdersController.class)
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class BulkOrdersControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @MockitoBean
+    private BulkOrdersService bulkOrdersService;
+
+    @Test
+    void returnsPerOrderResults() throws Exception {
+        List<OrderDTO> orderDTOs = Arrays.asList(
+                new OrderDTO(1, 10, OrderStatus.NEW, "partner@example.com"),
+                new OrderDTO(2, 5, OrderStatus.NEW, "partner@example.com"));
+        Mockito.doAnswer(invocation -> {
+            List<OrderEntity> orders = invocation.getArgument(0);
+            orders.get(0).setId(41);
+            return Map.of(1, "Item with id 2 not in stock");
+        }).when(bulkOrdersService).createNewOrders(any());
+
+        mockMvc.perform(post("/api/v1/orders:bulk").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].created").value(true))
+                .andExpect(jsonPath("$[0].order.id").value(41))
+                .andExpect(jsonPath("$[1].created").value(false))
+                .andExpect(jsonPath("$[1].error").value("Item with id 2 not in stock"));
+    }
+
+    @Test
+    void rejectsRequestsOverTheBulkLimit() throws Exception {
+        List<OrderDTO> orderDTOs = new ArrayList<>();
+        for (int i = 0; i < 10001; i++) {
+            orderDTOs.add(new OrderDTO(1, 1, OrderStatus.NEW, "partner@example.com"));
+        }
+        mockMvc.perform(post("/api/v1/orders:bulk").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTOs)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void returns5xxWhenBulkCreationFails() throws Exception {
+        List<OrderDTO> orderDTOs = Arrays.asList(new OrderDTO(1, 10, OrderStatus.NEW, "partner@example.com"));
+        Mockito.doThrow(RuntimeException.class).when(bulkOrdersService).createNewOrders(any());
+        mockMvc.perform(post("/api/v1/orders:bulk").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTOs)))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -3,11 +3,17 @@ package com.oms.orders.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.webClient.DownstreamUnavailableException;
+import com.oms.orders.dto.OrderCountsDTO;
 import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.dto.OrdersPageDTO;
 import com.oms.orders.entity.OrderEntity;
 import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.service.OrderCounters;
+import com.oms.orders.service.OrderIdempotencyStore;
+import com.oms.orders.service.OrderIntakePipeline;
 import com.oms.orders.service.OrdersService;
-import com.oms.orders.webclient.CatalogServiceWebClient;
+import com.oms.orders.webclient.CatalogItemCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -23,10 +29,14 @@ import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,7 +53,16 @@ public class OrdersControllerTest {
     private OrdersService ordersService;
 
     @MockitoBean
-    private CatalogServiceWebClient catalogServiceWebClient;
+    private CatalogItemCache catalogItemCache;
+
+    @MockitoBean
+    private OrderIntakePipeline orderIntakePipeline;
+
+    @MockitoBean
+    private OrderCounters orderCounters;
+
+    @MockitoBean
+    private OrderIdempotencyStore orderIdempotencyStore;
 
     @Test
     void return201OnNewOrderCreation() throws Exception {
@@ -62,8 +81,8 @@ public class OrdersControllerTest {
                 "test@example.com");
         orderEntity.setId(1);
 
-        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogServiceWebClient).getCatalogItem(1);
-        Mockito.doReturn(orderEntity).when(ordersService).createNewOrder(any(OrderEntity.class));
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogItemCache).getCatalogItem(1);
+        Mockito.doReturn(orderEntity).when(ordersService).createNewOrder(any(OrderEntity.class), isNull());
         String jsonString = objectMapper.writeValueAsString(orderDTO);
         mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON).content(jsonString))
                 .andExpect(status().isCreated());
@@ -76,12 +95,178 @@ public class OrdersControllerTest {
                 OrderStatus.NEW,
                 "test@example.com");
 
-        Mockito.doThrow(RuntimeException.class).when(ordersService).createNewOrder(any(OrderEntity.class));
+        Mockito.doThrow(RuntimeException.class).when(ordersService).createNewOrder(any(OrderEntity.class), isNull());
         String jsonString = objectMapper.writeValueAsString(orderDTO);
         mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON).content(jsonString))
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void returns503WithRetryAfterWhenADownstreamServiceIsUnavailable() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1,
+                10,
+                OrderStatus.NEW,
+                "test@example.com");
+
+        Mockito.doReturn(Mono.error(new DownstreamUnavailableException("Circuit for catalog is open", 4))).when(catalogItemCache).getCatalogItem(1);
+        mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "4"));
+    }
+
+    @Test
+    void passesIdempotencyKeyWhenCreatingOrder() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        CatalogDTO catalogDTO = new CatalogDTO("someProduct", 20d, "Category2");
+        OrderEntity createdOrder = new OrderEntity(1, 10, 20d, 200d, OrderStatus.NEW, "test@example.com");
+        createdOrder.setId(3);
+
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogItemCache).getCatalogItem(1);
+        Mockito.doReturn(createdOrder).when(ordersService).createNewOrder(any(OrderEntity.class), eq("retry-key"));
+        mockMvc.perform(post("/api/v1/orders").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(3));
+    }
+
+    @Test
+    void replaysCreatedOrderForRepeatedIdempotencyKey() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        OrderEntity createdOrder = new OrderEntity(1, 10, 20d, 200d, OrderStatus.NEW, "test@example.com");
+        createdOrder.setId(3);
+
+        Mockito.doReturn(3).when(orderIdempotencyStore).findOrderId("retry-key");
+        Mockito.doReturn(createdOrder).when(ordersService).getOrderById(3);
+        mockMvc.perform(post("/api/v1/orders").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(3));
+        Mockito.verify(catalogItemCache, Mockito.never()).getCatalogItem(1);
+        Mockito.verify(ordersService, Mockito.never()).createNewOrder(any(OrderEntity.class), any());
+    }
+
+    @Test
+    void returns422WhenIdempotencyKeyWasUsedForDifferentOrder() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 5, OrderStatus.NEW, "test@example.com");
+        OrderEntity createdOrder = new OrderEntity(1, 10, 20d, 200d, OrderStatus.NEW, "test@example.com");
+        createdOrder.setId(3);
+
+        Mockito.doReturn(3).when(orderIdempotencyStore).findOrderId("retry-key");
+        Mockito.doReturn(createdOrder).when(ordersService).getOrderById(3);
+        mockMvc.perform(post("/api/v1/orders").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isUnprocessableEntity());
+        Mockito.verify(ordersService, Mockito.never()).createNewOrder(any(OrderEntity.class), any());
+    }
+
+    @Test
+    void replaysOrderCreatedByConcurrentRequestWithSameKey() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        CatalogDTO catalogDTO = new CatalogDTO("someProduct", 20d, "Category2");
+        OrderEntity createdOrder = new OrderEntity(1, 10, 20d, 200d, OrderStatus.NEW, "test@example.com");
+        createdOrder.setId(3);
+
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogItemCache).getCatalogItem(1);
+        Mockito.doReturn(null, 3).when(orderIdempotencyStore).findOrderId("retry-key");
+        Mockito.doThrow(RuntimeException.class).when(ordersService).createNewOrder(any(OrderEntity.class), eq("retry-key"));
+        Mockito.doReturn(createdOrder).when(ordersService).getOrderById(3);
+        mockMvc.perform(post("/api/v1/orders").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(3));
+    }
+
+    @Test
+    void returns202WithOrderIdWhenOrderIsAcceptedAsynchronously() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1,
+                10,
+                OrderStatus.NEW,
+                "test@example.com");
+        OrderEntity acceptedOrder = new OrderEntity(1,
+                10,
+                0,
+                0,
+                OrderStatus.NEW,
+                "test@example.com");
+        acceptedOrder.setId(7);
+
+        Mockito.doReturn(acceptedOrder).when(orderIntakePipeline).submit(any(OrderEntity.class), isNull());
+        mockMvc.perform(post("/api/v1/orders?async=true").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/orders/7"))
+                .andExpect(jsonPath("$.id").value(7));
+        Mockito.verify(catalogItemCache, Mockito.never()).getCatalogItem(1);
+        Mockito.verify(ordersService, Mockito.never()).createNewOrder(any(OrderEntity.class), any());
+    }
+
+    @Test
+    void passesIdempotencyKeyWhenAcceptingOrderAsynchronously() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        OrderEntity acceptedOrder = new OrderEntity(1, 10, 0, 0, OrderStatus.NEW, "test@example.com");
+        acceptedOrder.setId(7);
+
+        Mockito.doReturn(acceptedOrder).when(orderIntakePipeline).submit(any(OrderEntity.class), eq("retry-key"));
+        mockMvc.perform(post("/api/v1/orders?async=true").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void replaysAcceptedOrderForRepeatedIdempotencyKey() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        OrderEntity acceptedOrder = new OrderEntity(1, 10, 20d, 200d, OrderStatus.PROCESSING, "test@example.com");
+        acceptedOrder.setId(7);
+
+        Mockito.doReturn(7).when(orderIdempotencyStore).findOrderId("retry-key");
+        Mockito.doReturn(acceptedOrder).when(ordersService).getOrderById(7);
+        mockMvc.perform(post("/api/v1/orders?async=true").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/orders/7"))
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(7));
+        Mockito.verify(orderIntakePipeline, Mockito.never()).submit(any(OrderEntity.class), any());
+    }
+
+    @Test
+    void replaysOrderAcceptedByConcurrentRequestWithSameKey() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        OrderEntity acceptedOrder = new OrderEntity(1, 10, 0, 0, OrderStatus.NEW, "test@example.com");
+        acceptedOrder.setId(7);
+
+        Mockito.doReturn(null, 7).when(orderIdempotencyStore).findOrderId("retry-key");
+        Mockito.doThrow(RuntimeException.class).when(orderIntakePipeline).submit(any(OrderEntity.class), eq("retry-key"));
+        Mockito.doReturn(acceptedOrder).when(ordersService).getOrderById(7);
+        mockMvc.perform(post("/api/v1/orders?async=true").header("Idempotency-Key", "retry-key")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void returns400ForBlankIdempotencyKeyOnAsynchronousOrder() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+
+        mockMvc.perform(post("/api/v1/orders?async=true").header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(orderIntakePipeline, Mockito.never()).submit(any(OrderEntity.class), any());
+    }
+
+    @Test
+    void returns503WhenOrderIntakeIsFull() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1,
+                10,
+                OrderStatus.NEW,
+                "test@example.com");
+
+        Mockito.doReturn(null).when(orderIntakePipeline).submit(any(OrderEntity.class), isNull());
+        mockMvc.perform(post("/api/v1/orders?async=true").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void successfullyFetchesAllExistingOrders() throws Exception {
         OrderEntity orderOne = new OrderEntity(1,
@@ -165,13 +350,13 @@ public class OrdersControllerTest {
                 "test@example.com");
         orderEntity.setId(1);
 
-        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogServiceWebClient).getCatalogItem(1);
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogItemCache).getCatalogItem(1);
         Mockito.doReturn(orderEntity).when(ordersService).updateOrder(eq(1), any(OrderEntity.class));
         mockMvc.perform(put("/api/v1/orders/1").contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(orderDTO)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.itemId").value(1))
-                .andExpect(jsonPath("$.status").value(OrderStatus.DELIVERED));
+                .andExpect(jsonPath("$.status").value(OrderStatus.DELIVERED.getValue()));
 
     }
 
@@ -186,7 +371,7 @@ public class OrdersControllerTest {
                 20d,
                 "category1"
         );
-        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogServiceWebClient).getCatalogItem(1);
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogItemCache).getCatalogItem(1);
         Mockito.doReturn(null).when(ordersService).updateOrder(eq(1), any(OrderEntity.class));
         mockMvc.perform(put("/api/v1/orders/1").contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderDTO)))
@@ -269,4 +454,62 @@ public class OrdersControllerTest {
         mockMvc.perform(get("/api/v1/orders?status=new"))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void returnsBadRequestForUndefinedStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/orders?status=invalid")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/orders?status=invalid&limit=10")).andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(ordersService);
+    }
+
+    @Test
+    void returnsPageOfOrdersWithStatusAndNextCursor() throws Exception {
+        OrderEntity orderOne = new OrderEntity(1,
+                10,
+                20d,
+                200d,
+                OrderStatus.PROCESSING,
+                "test@example.com");
+        orderOne.setId(11);
+        Mockito.doReturn(new OrdersPageDTO(Arrays.asList(orderOne), 11)).when(ordersService)
+                .findOrdersPageByStatus(OrderStatus.PROCESSING, 10, 1);
+
+        mockMvc.perform(get("/api/v1/orders?status=processing&after=10&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(11))
+                .andExpect(jsonPath("$.nextCursor").value(11));
+    }
+
+    @Test
+    void rejectsPageSizesOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/orders?status=processing&limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/orders?status=processing&limit=501")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void returnsOrderCountsByStatus() throws Exception {
+        Map<String, OrderCountsDTO> counts = new LinkedHashMap<>();
+        counts.put(OrderStatus.NEW.getValue(), new OrderCountsDTO(3, 30, 600d));
+        counts.put(OrderStatus.SHIPPED.getValue(), new OrderCountsDTO(1, 10, 200d));
+        Mockito.doReturn(counts).when(orderCounters).getCountsByStatus();
+
+        mockMvc.perform(get("/api/v1/orders/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.new.orderCount").value(3))
+                .andExpect(jsonPath("$.new.totalQuantity").value(30))
+                .andExpect(jsonPath("$.shipped.totalRevenue").value(200d));
+        Mockito.verifyNoInteractions(ordersService);
+    }
+
+    @Test
+    void returnsOrderCountsForItem() throws Exception {
+        Mockito.doReturn(new OrderCountsDTO(2, 15, 300d)).when(orderCounters).getCountsForItem(7);
+
+        mockMvc.perform(get("/api/v1/orders/counts?itemId=7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.totalQuantity").value(15))
+                .andExpect(jsonPath("$.totalRevenue").value(300d));
+    }
 }
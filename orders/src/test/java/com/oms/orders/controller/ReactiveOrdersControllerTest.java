@@ -0,0 +1,72 @@
+package com.oms.orders.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oms.orders.dto.OrderDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.service.ReactiveOrdersService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReactiveOrdersController.class)
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class ReactiveOrdersControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @MockitoBean
+    private ReactiveOrdersService reactiveOrdersService;
+
+    @Test
+    void return201OnNewOrderCreation() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        OrderEntity orderEntity = new OrderEntity(1, 10, 20d, 200d, OrderStatus.NEW, "test@example.com");
+        orderEntity.setId(1);
+        Mockito.doReturn(Mono.just(orderEntity)).when(reactiveOrdersService).createNewOrder(any(OrderEntity.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v2/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.totalPrice").value(200d));
+    }
+
+    @Test
+    void returnInternalServerErrorIfAddingNewOrderFails() throws Exception {
+        OrderDTO orderDTO = new OrderDTO(1, 10, OrderStatus.NEW, "test@example.com");
+        Mockito.doReturn(Mono.error(new RuntimeException("Item with id 1 not in stock")))
+                .when(reactiveOrdersService).createNewOrder(any(OrderEntity.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v2/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,61 @@
+package com.oms.orders.repository;
+
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:/application-test.properties",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrdersInsertBatchingTest {
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        ordersRepository.deleteAllInBatch();
+    }
+
+    private List<OrderEntity> newOrders(int count) {
+        List<OrderEntity> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(new OrderEntity(1, 1, 20.0d, 20.0d, OrderStatus.NEW, "test@example.com"));
+        }
+        return orders;
+    }
+
+    @Test
+    public void insertsOrdersInJdbcBatches() {
+        ordersRepository.saveAll(newOrders(200));
+
+        Assertions.assertEquals(200, statistics.getEntityInsertCount());
+        // 200 rows with batch_size=100 and allocationSize=50: 2 insert batches and 4-5 sequence calls,
+        // against 200 separate INSERT ... RETURNING statements with identity ids.
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= 10,
+                String.format("Expected batched inserts but %s statements were prepared", statistics.getPrepareStatementCount()));
+    }
+}
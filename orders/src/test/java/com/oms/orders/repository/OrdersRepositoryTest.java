@@ -6,6 +6,7 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.List;
@@ -60,8 +61,8 @@ public class OrdersRepositoryTest {
                 OrderStatus.NEW,
                 "test@example.com"
         );
-        ordersRepository.save(orderEntityItem);
-        OrderEntity orderEntity = ordersRepository.findById(1).orElse(null);
+        OrderEntity savedOrder = ordersRepository.save(orderEntityItem);
+        OrderEntity orderEntity = ordersRepository.findById(savedOrder.getId()).orElse(null);
         Assertions.assertNotNull(orderEntity);
     }
 
@@ -185,5 +186,21 @@ public class OrdersRepositoryTest {
         List<OrderEntity> newOrders = ordersRepository.findByStatus(OrderStatus.NEW);
         Assertions.assertTrue(newOrders.isEmpty());
     }
-}
 
+    @Test
+    public void returnsPagesOfOrdersByStatusAfterTheCursor() {
+        OrderEntity firstOrder = ordersRepository.save(new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "test@example.com"));
+        ordersRepository.save(new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.NEW, "test@example.com"));
+        OrderEntity secondOrder = ordersRepository.save(new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "test@example.com"));
+        OrderEntity thirdOrder = ordersRepository.save(new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "test@example.com"));
+
+        List<OrderEntity> page = ordersRepository.findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.PROCESSING, 0, Limit.of(2));
+        Assertions.assertEquals(2, page.size());
+        Assertions.assertEquals(firstOrder.getId(), page.get(0).getId());
+        Assertions.assertEquals(secondOrder.getId(), page.get(1).getId());
+
+        page = ordersRepository.findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.PROCESSING, secondOrder.getId(), Limit.of(2));
+        Assertions.assertEquals(1, page.size());
+        Assertions.assertEquals(thirdOrder.getId(), page.get(0).getId());
+    }
+}
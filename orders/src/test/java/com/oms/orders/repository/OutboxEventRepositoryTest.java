@@ -0,0 +1,71 @@
+package com.oms.orders.repository;
+
+import com.oms.orders.entity.OutboxEventEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.List;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void cleanup() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    public void findsOnlyPendingEventsThatAreDueInInsertionOrder() {
+        OutboxEventEntity first = outboxEventRepository.save(new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10));
+        OutboxEventEntity second = outboxEventRepository.save(new OutboxEventEntity(2, OutboxEventEntity.RELEASE_STOCK, 13, 5));
+        OutboxEventEntity notDue = new OutboxEventEntity(3, OutboxEventEntity.RESERVE_STOCK, 14, 1);
+        notDue.setNextAttemptAt(Instant.now().plusSeconds(60));
+        outboxEventRepository.save(notDue);
+        OutboxEventEntity failed = new OutboxEventEntity(4, OutboxEventEntity.RESERVE_STOCK, 15, 1);
+        failed.setStatus(OutboxEventEntity.FAILED);
+        outboxEventRepository.save(failed);
+
+        List<OutboxEventEntity> due = outboxEventRepository.findDueInOrderOfEachOrder(
+                OutboxEventEntity.PENDING, Instant.now(), Limit.of(10));
+
+        Assertions.assertEquals(2, due.size());
+        Assertions.assertEquals(first.getId(), due.get(0).getId());
+        Assertions.assertEquals(second.getId(), due.get(1).getId());
+        Assertions.assertEquals(first.getIdempotencyKey(), due.get(0).getIdempotencyKey());
+    }
+
+    @Test
+    public void holdsBackEventsQueuedBehindAPendingEventOfTheSameOrder() {
+        OutboxEventEntity notDueReserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        notDueReserve.setNextAttemptAt(Instant.now().plusSeconds(60));
+        outboxEventRepository.save(notDueReserve);
+        outboxEventRepository.save(new OutboxEventEntity(1, OutboxEventEntity.RELEASE_STOCK, 12, 10));
+        OutboxEventEntity otherOrder = outboxEventRepository.save(new OutboxEventEntity(2, OutboxEventEntity.RESERVE_STOCK, 13, 5));
+
+        List<OutboxEventEntity> due = outboxEventRepository.findDueInOrderOfEachOrder(
+                OutboxEventEntity.PENDING, Instant.now(), Limit.of(10));
+
+        Assertions.assertEquals(1, due.size());
+        Assertions.assertEquals(otherOrder.getId(), due.get(0).getId());
+    }
+
+    @Test
+    public void limitsTheBatchSize() {
+        for (int orderId = 1; orderId <= 5; orderId++) {
+            outboxEventRepository.save(new OutboxEventEntity(orderId, OutboxEventEntity.RESERVE_STOCK, 12, 1));
+        }
+        List<OutboxEventEntity> due = outboxEventRepository.findDueInOrderOfEachOrder(
+                OutboxEventEntity.PENDING, Instant.now(), Limit.of(3));
+        Assertions.assertEquals(3, due.size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogServiceWebClient;
+import com.oms.orders.webclient.InventoryServiceWebClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkOrdersServiceTest {
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    @Mock
+    private CatalogServiceWebClient catalogServiceWebClient;
+
+    @Mock
+    private InventoryServiceWebClient inventoryServiceWebClient;
+
+    private BulkOrdersService bulkOrdersService;
+
+    @BeforeEach
+    void setup() {
+        bulkOrdersService = new BulkOrdersService(ordersRepository, catalogServiceWebClient, inventoryServiceWebClient, 4);
+    }
+
+    private OrderEntity order(int itemId, int quantity) {
+        return new OrderEntity(itemId, quantity, 0, 0, OrderStatus.DELIVERED, "partner@example.com");
+    }
+
+    @Test
+    void pricesReservesAndSavesAllOrdersInBatches() {
+        List<OrderEntity> orders = Arrays.asList(order(1, 2), order(2, 5), order(1, 3));
+        Mockito.doReturn(Mono.just(Arrays.asList(new CatalogDTO(1, "item1", 10d, "c"), new CatalogDTO(2, "item2", 4d, "c"))))
+                .when(catalogServiceWebClient).getCatalogItems(any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(1), eq(5), any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(2), eq(5), any());
+
+        Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+
+        Assertions.assertTrue(rejections.isEmpty());
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(inventoryServiceWebClient).reserveStock(eq(1), eq(5), keys.capture());
+        Assertions.assertEquals(2, keys.getValue().split(",").length);
+        Mockito.verify(catalogServiceWebClient, Mockito.times(1)).getCatalogItems(any());
+        ArgumentCaptor<List<OrderEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(ordersRepository, Mockito.times(1)).saveAll(saved.capture());
+        Assertions.assertEquals(3, saved.getValue().size());
+        Assertions.assertEquals(30d, orders.get(2).getTotalPrice());
+        Assertions.assertEquals(OrderStatus.NEW, orders.get(1).getStatus());
+    }
+
+    @Test
+    void rejectsEveryOrderForAnItemThatCannotBeReserved() {
+        List<OrderEntity> orders = Arrays.asList(order(1, 2), order(2, 5), order(1, 3));
+        Mockito.doReturn(Mono.just(Arrays.asList(new CatalogDTO(1, "item1", 10d, "c"), new CatalogDTO(2, "item2", 4d, "c"))))
+                .when(catalogServiceWebClient).getCatalogItems(any());
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 1 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(eq(1), any(Integer.class), any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(2), eq(5), any());
+
+        Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+
+        Assertions.assertEquals(2, rejections.size());
+        Assertions.assertEquals("Item with id 1 not in stock", rejections.get(0));
+        Assertions.assertEquals("Item with id 1 not in stock", rejections.get(2));
+        ArgumentCaptor<List<OrderEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(ordersRepository).saveAll(saved.capture());
+        Assertions.assertEquals(1, saved.getValue().size());
+    }
+
+    @Test
+    void rejectsInvalidQuantitiesAndUnknownItems() {
+        List<OrderEntity> orders = Arrays.asList(order(1, 0), order(3, 1));
+        Mockito.doReturn(Mono.just(List.of())).when(catalogServiceWebClient).getCatalogItems(any());
+
+        Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+
+        Assertions.assertEquals("Order quantity should be at least 1", rejections.get(0));
+        Assertions.assertEquals("Item with id 3 not found in catalog", rejections.get(1));
+        Mockito.verifyNoInteractions(inventoryServiceWebClient, ordersRepository);
+    }
+
+    @Test
+    void releasesReservationsWhenSavingFails() {
+        List<OrderEntity> orders = Arrays.asList(order(1, 2), order(1, 3));
+        Mockito.doReturn(Mono.just(List.of(new CatalogDTO(1, "item1", 10d, "c")))).when(catalogServiceWebClient).getCatalogItems(any());
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(1), eq(5), keys.capture());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).releaseStock(eq(1), any(Integer.class), any());
+        Mockito.doThrow(RuntimeException.class).when(ordersRepository).saveAll(any());
+
+        Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+
+        Assertions.assertEquals(2, rejections.size());
+        String[] orderKeys = keys.getValue().split(",");
+        Mockito.verify(inventoryServiceWebClient).releaseStock(1, 2, orderKeys[0] + "-release");
+        Mockito.verify(inventoryServiceWebClient).releaseStock(1, 3, orderKeys[1] + "-release");
+    }
+
+    @Test
+    void reservesOrdersOneByOneWhenTheCombinedReservationIsRefused() {
+        List<OrderEntity> orders = Arrays.asList(order(1, 2), order(1, 3));
+        Mockito.doReturn(Mono.just(List.of(new CatalogDTO(1, "item1", 10d, "c")))).when(catalogServiceWebClient).getCatalogItems(any());
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 1 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(eq(1), eq(5), keys.capture());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(1), eq(2), any());
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 1 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(eq(1), eq(3), any());
+
+        Map<Integer, String> rejections = bulkOrdersService.createNewOrders(orders);
+
+        String[] orderKeys = keys.getValue().split(",");
+        Mockito.verify(inventoryServiceWebClient).reserveStock(1, 2, orderKeys[0]);
+        Mockito.verify(inventoryServiceWebClient).reserveStock(1, 3, orderKeys[1]);
+        Assertions.assertEquals(Map.of(1, "Item with id 1 not in stock"), rejections);
+        ArgumentCaptor<List<OrderEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(ordersRepository).saveAll(saved.capture());
+        Assertions.assertEquals(List.of(orders.get(0)), saved.getValue());
+    }
+}
@@ -0,0 +1,120 @@
+package com.oms.orders.service;
+
+import com.oms.orders.dto.OrderCountsDTO;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class OrderCountersTest {
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private OrderCounters orderCounters;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        ordersRepository.deleteAll();
+    }
+
+    @Test
+    void countsNewOrders() {
+        long newOrdersBefore = orderCounters.getCountsByStatus().get(OrderStatus.NEW.getValue()).getOrderCount();
+
+        ordersRepository.save(new OrderEntity(901, 4, 25.0d, 100.0d, OrderStatus.NEW, "test@example.com"));
+        ordersRepository.save(new OrderEntity(901, 2, 25.0d, 50.0d, OrderStatus.NEW, "test@example.com"));
+
+        OrderCountsDTO itemCounts = orderCounters.getCountsForItem(901);
+        Assertions.assertEquals(2, itemCounts.getOrderCount());
+        Assertions.assertEquals(6, itemCounts.getTotalQuantity());
+        Assertions.assertEquals(150.0d, itemCounts.getTotalRevenue(), 0.0001);
+        Assertions.assertEquals(newOrdersBefore + 2, orderCounters.getCountsByStatus().get(OrderStatus.NEW.getValue()).getOrderCount());
+    }
+
+    @Test
+    void movesOrderBetweenStatusesOnUpdate() {
+        OrderEntity order = ordersRepository.save(new OrderEntity(902, 3, 10.0d, 30.0d, OrderStatus.NEW, "test@example.com"));
+        long newOrdersBefore = orderCounters.getCountsByStatus().get(OrderStatus.NEW.getValue()).getOrderCount();
+        long shippedOrdersBefore = orderCounters.getCountsByStatus().get(OrderStatus.SHIPPED.getValue()).getOrderCount();
+
+        OrderEntity shipped = new OrderEntity(902, 3, 10.0d, 30.0d, OrderStatus.SHIPPED, "test@example.com");
+        shipped.setId(order.getId());
+        ordersRepository.save(shipped);
+
+        Assertions.assertEquals(newOrdersBefore - 1, orderCounters.getCountsByStatus().get(OrderStatus.NEW.getValue()).getOrderCount());
+        Assertions.assertEquals(shippedOrdersBefore + 1, orderCounters.getCountsByStatus().get(OrderStatus.SHIPPED.getValue()).getOrderCount());
+        Assertions.assertEquals(1, orderCounters.getCountsForItem(902).getOrderCount());
+        Assertions.assertEquals(3, orderCounters.getCountsForItem(902).getTotalQuantity());
+    }
+
+    @Test
+    void removesDeletedOrders() {
+        OrderEntity order = ordersRepository.save(new OrderEntity(903, 5, 10.0d, 50.0d, OrderStatus.NEW, "test@example.com"));
+        ordersRepository.deleteById(order.getId());
+
+        OrderCountsDTO itemCounts = orderCounters.getCountsForItem(903);
+        Assertions.assertEquals(0, itemCounts.getOrderCount());
+        Assertions.assertEquals(0, itemCounts.getTotalQuantity());
+        Assertions.assertEquals(0.0d, itemCounts.getTotalRevenue(), 0.0001);
+    }
+
+    @Test
+    void ignoresRolledBackWrites() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ordersRepository.save(new OrderEntity(904, 1, 10.0d, 10.0d, OrderStatus.NEW, "test@example.com"));
+            ordersRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals(0, orderCounters.getCountsForItem(904).getOrderCount());
+    }
+
+    @Test
+    void seedsCountersFromExistingOrders() {
+        ordersRepository.save(new OrderEntity(905, 2, 10.0d, 20.0d, OrderStatus.NEW, "test@example.com"));
+        ordersRepository.save(new OrderEntity(905, 1, 10.0d, 10.0d, OrderStatus.DELIVERED, "test@example.com"));
+
+        OrderCounters seededCounters = new OrderCounters(ordersRepository);
+        seededCounters.seedFromOrders();
+
+        Assertions.assertEquals(2, seededCounters.getCountsForItem(905).getOrderCount());
+        Assertions.assertEquals(3, seededCounters.getCountsForItem(905).getTotalQuantity());
+        Assertions.assertEquals(30.0d, seededCounters.getCountsForItem(905).getTotalRevenue(), 0.0001);
+        Assertions.assertEquals(1, seededCounters.getCountsByStatus().get(OrderStatus.DELIVERED.getValue()).getOrderCount());
+    }
+
+    @Test
+    void picksUpOrdersWrittenByOtherInstancesOnReseed() {
+        ordersRepository.save(new OrderEntity(906, 2, 10.0d, 20.0d, OrderStatus.NEW, "test@example.com"));
+        // Another instance's insert, which this instance's listener never sees.
+        jdbcTemplate.update("INSERT INTO orders (id, item_id, order_quantity, price_per_unit, total_price, order_status, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                Integer.MAX_VALUE, 906, 3, 10.0d, 30.0d, OrderStatus.NEW.getCode(), "other@example.com");
+        Assertions.assertEquals(1, orderCounters.getCountsForItem(906).getOrderCount());
+
+        orderCounters.reseedFromOrders();
+
+        Assertions.assertEquals(2, orderCounters.getCountsForItem(906).getOrderCount());
+        Assertions.assertEquals(5, orderCounters.getCountsForItem(906).getTotalQuantity());
+        Assertions.assertEquals(50.0d, orderCounters.getCountsForItem(906).getTotalRevenue(), 0.0001);
+
+        ordersRepository.save(new OrderEntity(906, 1, 10.0d, 10.0d, OrderStatus.NEW, "test@example.com"));
+        Assertions.assertEquals(3, orderCounters.getCountsForItem(906).getOrderCount());
+    }
+}
@@ -0,0 +1,68 @@
+package com.oms.orders.service;
+
+import com.oms.orders.entity.IdempotencyKeyEntity;
+import com.oms.orders.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:/application-test.properties")
+public class OrderIdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @AfterEach
+    void cleanup() {
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void findsOrderIdForRecordedKey() {
+        OrderIdempotencyStore store = new OrderIdempotencyStore(idempotencyKeyRepository, 100, 24);
+        store.record("key-1", 42);
+
+        Assertions.assertEquals(42, store.findOrderId("key-1"));
+        Assertions.assertNull(store.findOrderId("key-2"));
+    }
+
+    @Test
+    void findsKeysRecordedByAnotherInstance() {
+        new OrderIdempotencyStore(idempotencyKeyRepository, 100, 24).record("key-1", 42);
+
+        OrderIdempotencyStore otherStore = new OrderIdempotencyStore(idempotencyKeyRepository, 100, 24);
+        Assertions.assertEquals(42, otherStore.findOrderId("key-1"));
+    }
+
+    @Test
+    void rejectsSecondOrderForTheSameKey() {
+        OrderIdempotencyStore store = new OrderIdempotencyStore(idempotencyKeyRepository, 100, 24);
+        store.record("key-1", 42);
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> store.record("key-1", 43));
+        Assertions.assertEquals(42, idempotencyKeyRepository.findById("key-1").get().getOrderId());
+    }
+
+    @Test
+    void purgesAndIgnoresExpiredKeys() {
+        IdempotencyKeyEntity expiredKey = new IdempotencyKeyEntity("expired-key", 7);
+        ReflectionTestUtils.setField(expiredKey, "createdAt", Instant.now().minus(Duration.ofHours(25)));
+        idempotencyKeyRepository.save(expiredKey);
+        idempotencyKeyRepository.save(new IdempotencyKeyEntity("fresh-key", 8));
+        OrderIdempotencyStore store = new OrderIdempotencyStore(idempotencyKeyRepository, 100, 24);
+
+        Assertions.assertNull(store.findOrderId("expired-key"));
+        store.purgeExpiredKeys();
+        Assertions.assertFalse(idempotencyKeyRepository.existsById("expired-key"));
+        Assertions.assertTrue(idempotencyKeyRepository.existsById("fresh-key"));
+    }
+}
@@ -0,0 +1,231 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogItemCache;
+import com.oms.orders.webclient.StockReservationCombiner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderIntakePipelineTest {
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    @Mock
+    private CatalogItemCache catalogItemCache;
+
+    @Mock
+    private StockReservationCombiner stockReservationCombiner;
+
+    @Mock
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    private Scheduler jdbcScheduler;
+
+    private List<OrderStatus> savedStatuses;
+
+    @BeforeEach
+    void setup() {
+        jdbcScheduler = Schedulers.newBoundedElastic(2, 10, "orders-jdbc-test");
+        savedStatuses = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcScheduler.dispose();
+    }
+
+    private OrderIntakePipeline pipeline(int capacity) {
+        return new OrderIntakePipeline(ordersRepository, catalogItemCache, stockReservationCombiner, orderIdempotencyStore,
+                TransactionOperations.withoutTransaction(), jdbcScheduler, capacity, 4, 4, 2, 60_000, 10);
+    }
+
+    private void recordSaves() {
+        Mockito.doAnswer(invocation -> {
+            OrderEntity saved = invocation.getArgument(0);
+            saved.setId(1);
+            savedStatuses.add(saved.getStatus());
+            return saved;
+        }).when(ordersRepository).save(any(OrderEntity.class));
+    }
+
+    @Test
+    void storesOrderAsNewAndConfirmsItInTheBackground() {
+        recordSaves();
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(12, 10, "order-1-reserve");
+
+        OrderEntity order = new OrderEntity(12, 10, 0, 0, OrderStatus.DELIVERED, "testcontact@example.com");
+        OrderEntity accepted = pipeline(10).submit(order);
+
+        Assertions.assertEquals(1, accepted.getId());
+        Mockito.verify(ordersRepository, Mockito.timeout(2000).times(2)).save(order);
+        Assertions.assertEquals(List.of(OrderStatus.NEW, OrderStatus.PROCESSING), savedStatuses);
+        Assertions.assertEquals(200d, order.getTotalPrice());
+    }
+
+    @Test
+    void rejectsOrderWhenItemIsNotInStock() {
+        recordSaves();
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 12 not in stock")))
+                .when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+
+        OrderEntity order = new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com");
+        pipeline(10).submit(order);
+
+        Mockito.verify(ordersRepository, Mockito.timeout(2000).times(2)).save(order);
+        Assertions.assertEquals(List.of(OrderStatus.NEW, OrderStatus.REJECTED), savedStatuses);
+    }
+
+    @Test
+    void leavesOrderToTheRedriveWhenTheReservationOutcomeIsUnknown() {
+        recordSaves();
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.error(new TimeoutException("inventory did not answer")))
+                .when(stockReservationCombiner).reserveStock(12, 10, "order-1-reserve");
+        OrderIntakePipeline pipeline = pipeline(10);
+
+        OrderEntity order = pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com"));
+
+        Mockito.verify(stockReservationCombiner, Mockito.timeout(2000)).reserveStock(12, 10, "order-1-reserve");
+        Mockito.verify(ordersRepository, Mockito.after(200).times(1)).save(any(OrderEntity.class));
+        Assertions.assertEquals(List.of(OrderStatus.NEW), savedStatuses);
+        Assertions.assertNotNull(order.getIntakeAcceptedAt());
+
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(12, 10, "order-1-reserve");
+        Mockito.doReturn(List.of(order)).when(ordersRepository).findByIntakeAcceptedAtLessThanOrderByIdAsc(any(), any());
+        pipeline.redriveStaleOrders();
+
+        Mockito.verify(stockReservationCombiner, Mockito.timeout(2000).times(2)).reserveStock(12, 10, "order-1-reserve");
+        Mockito.verify(ordersRepository, Mockito.timeout(2000).times(2)).save(any(OrderEntity.class));
+        Assertions.assertEquals(List.of(OrderStatus.NEW, OrderStatus.PROCESSING), savedStatuses);
+    }
+
+    @Test
+    void leavesReservedOrderToTheRedriveWhenConfirmingFails() {
+        Mockito.doAnswer(invocation -> {
+            OrderEntity saved = invocation.getArgument(0);
+            savedStatuses.add(saved.getStatus());
+            if (saved.getStatus().equals(OrderStatus.PROCESSING)) {
+                throw new RuntimeException("database unavailable");
+            }
+            saved.setId(1);
+            return saved;
+        }).when(ordersRepository).save(any(OrderEntity.class));
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+
+        pipeline(10).submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com"));
+
+        Mockito.verify(ordersRepository, Mockito.timeout(2000).times(2)).save(any(OrderEntity.class));
+        Mockito.verify(ordersRepository, Mockito.after(200).times(2)).save(any(OrderEntity.class));
+        Assertions.assertEquals(List.of(OrderStatus.NEW, OrderStatus.PROCESSING), savedStatuses);
+    }
+
+    @Test
+    void recordsIdempotencyKeyForTheAcceptedOrder() {
+        recordSaves();
+        Mockito.doReturn(Mono.never()).when(catalogItemCache).getCatalogItem(12);
+
+        pipeline(10).submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com"), "retry-key");
+
+        Mockito.verify(orderIdempotencyStore).record("retry-key", 1);
+    }
+
+    @Test
+    void doesNotAcceptTheOrderWhenItsIdempotencyKeyWasAlreadyUsed() {
+        recordSaves();
+        Mockito.doThrow(new RuntimeException("duplicate key")).when(orderIdempotencyStore).record("retry-key", 1);
+        OrderIntakePipeline pipeline = pipeline(1);
+
+        Assertions.assertThrows(RuntimeException.class,
+                () -> pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com"), "retry-key"));
+        Mockito.verifyNoInteractions(catalogItemCache);
+        Mockito.doReturn(Mono.never()).when(catalogItemCache).getCatalogItem(12);
+        Assertions.assertNotNull(pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "other@example.com")));
+    }
+
+    @Test
+    void turnsOrdersAwayWhenThePipelineIsFull() {
+        recordSaves();
+        Mockito.doReturn(Mono.never()).when(catalogItemCache).getCatalogItem(12);
+        OrderIntakePipeline pipeline = pipeline(1);
+
+        Assertions.assertNotNull(pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "first@example.com")));
+        Assertions.assertNull(pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "second@example.com")));
+        Mockito.verify(ordersRepository, Mockito.times(1)).save(any(OrderEntity.class));
+    }
+
+    @Test
+    void deletesTheStoredOrderWhenItCannotEnterThePipeline() {
+        recordSaves();
+        OrderIntakePipeline pipeline = pipeline(10);
+        pipeline.shutdown();
+
+        OrderEntity order = new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com");
+        Assertions.assertThrows(RuntimeException.class, () -> pipeline.submit(order));
+        Mockito.verify(ordersRepository).delete(order);
+    }
+
+    @Test
+    void redrivesStaleOrdersLeftWaitingByARestart() {
+        recordSaves();
+        OrderEntity staleOrder = new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com");
+        staleOrder.setId(1);
+        staleOrder.setIntakeAcceptedAt(Instant.now().minusSeconds(600));
+        Mockito.doReturn(List.of(staleOrder)).when(ordersRepository).findByIntakeAcceptedAtLessThanOrderByIdAsc(any(), any());
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+
+        pipeline(10).redriveStaleOrders();
+
+        Mockito.verify(ordersRepository, Mockito.timeout(2000)).save(staleOrder);
+        Assertions.assertEquals(List.of(OrderStatus.PROCESSING), savedStatuses);
+        Assertions.assertNull(staleOrder.getIntakeAcceptedAt());
+    }
+
+    @Test
+    void doesNotRedriveOrdersStillInThePipeline() {
+        recordSaves();
+        Mockito.doReturn(Mono.never()).when(catalogItemCache).getCatalogItem(12);
+        OrderIntakePipeline pipeline = pipeline(10);
+        OrderEntity accepted = pipeline.submit(new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com"));
+        Mockito.doReturn(List.of(accepted)).when(ordersRepository).findByIntakeAcceptedAtLessThanOrderByIdAsc(any(), any());
+
+        pipeline.redriveStaleOrders();
+
+        Mockito.verify(catalogItemCache, Mockito.after(200).times(1)).getCatalogItem(12);
+    }
+
+    @Test
+    void rejectsNonPositiveQuantities() {
+        Assertions.assertThrows(RuntimeException.class, () -> {
+            pipeline(10).submit(new OrderEntity(12, 0, 0, 0, OrderStatus.NEW, "testcontact@example.com"));
+        });
+        Mockito.verifyNoInteractions(ordersRepository);
+    }
+}
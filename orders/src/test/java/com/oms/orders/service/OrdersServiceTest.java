@@ -1,21 +1,27 @@
 package com.oms.orders.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.oms.catalog.webClient.InventoryLookupCoalescer;
 import com.oms.inventory.dto.InventoryItemDTO;
+import com.oms.orders.dto.OrdersPageDTO;
 import com.oms.orders.entity.OrderEntity;
 import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.entity.OutboxEventEntity;
 import com.oms.orders.repository.OrdersRepository;
-import com.oms.orders.webclient.InventoryServiceWebClient;
+import com.oms.orders.repository.OutboxEventRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -31,13 +37,19 @@ public class OrdersServiceTest {
     private OrdersRepository ordersRepository;
 
     @MockitoBean
-    private InventoryServiceWebClient inventoryServiceWebClient;
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockitoBean
+    private InventoryLookupCoalescer inventoryLookupCoalescer;
+
+    @MockitoBean
+    private OrderIdempotencyStore orderIdempotencyStore;
 
     private OrdersService ordersService;
 
     @BeforeEach
     void setup() {
-        ordersService = new OrdersService(ordersRepository, inventoryServiceWebClient);
+        ordersService = new OrdersService(ordersRepository, outboxEventRepository, inventoryLookupCoalescer, orderIdempotencyStore);
     }
 
     @Test
@@ -50,15 +62,100 @@ public class OrdersServiceTest {
                 OrderStatus.DELIVERED,
                 "testcontact@example.com"
         );
-        InventoryItemDTO inventoryItemDTO = new InventoryItemDTO(12, 20);
         orderedItem.setId(1);
-        Mockito.doReturn(Mono.just(inventoryItemDTO)).when(inventoryServiceWebClient).getInventoryItemById(12);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(12, 100))).when(inventoryLookupCoalescer).getInventoryItemById(12);
         Mockito.doReturn(orderedItem).when(ordersRepository).save(any(OrderEntity.class));
-        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).updateInventoryAfterOperation(any(InventoryItemDTO.class));
         OrderEntity returnedOrder = ordersService.createNewOrder(orderedItem);
         Assertions.assertNotNull(returnedOrder);
         Assertions.assertEquals(1, returnedOrder.getId());
         Assertions.assertEquals(OrderStatus.NEW, returnedOrder.getStatus());
+        ArgumentCaptor<OutboxEventEntity> outboxEvent = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        Mockito.verify(outboxEventRepository).save(outboxEvent.capture());
+        Assertions.assertEquals(OutboxEventEntity.RESERVE_STOCK, outboxEvent.getValue().getEventType());
+        Assertions.assertEquals(1, outboxEvent.getValue().getOrderId());
+        Assertions.assertEquals(10, outboxEvent.getValue().getQuantity());
+        Assertions.assertNotNull(outboxEvent.getValue().getIdempotencyKey());
+    }
+
+    @Test
+    void rejectsOrderWhoseReservationWasRefused() {
+        OrderEntity order = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.NEW, "testcontact@example.com");
+        order.setId(1);
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        Mockito.doReturn(Optional.of(order)).when(ordersRepository).findById(1);
+
+        ordersService.rejectUnreservedOrder(reserve, "Item with id 12 not in stock");
+
+        Assertions.assertEquals(OrderStatus.REJECTED, order.getStatus());
+        Mockito.verify(ordersRepository).save(order);
+        Mockito.verify(outboxEventRepository).delete(reserve);
+    }
+
+    @Test
+    void keepsRefusedReservationAsFailedWhenOrderCannotBeRejected() {
+        OrderEntity order = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.SHIPPED, "testcontact@example.com");
+        order.setId(1);
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        Mockito.doReturn(Optional.of(order)).when(ordersRepository).findById(1);
+
+        ordersService.rejectUnreservedOrder(reserve, "Item with id 12 not in stock");
+
+        Assertions.assertEquals(OrderStatus.SHIPPED, order.getStatus());
+        Assertions.assertEquals(OutboxEventEntity.FAILED, reserve.getStatus());
+        Mockito.verify(outboxEventRepository).save(reserve);
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+    }
+
+    @Test
+    void dropsQueuedReleaseWhenOrderWasRejectedBeforeItsReservationWasRefused() {
+        OrderEntity order = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.REJECTED, "testcontact@example.com");
+        order.setId(1);
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        List<OutboxEventEntity> queuedRelease = List.of(new OutboxEventEntity(1, OutboxEventEntity.RELEASE_STOCK, 12, 10));
+        Mockito.doReturn(Optional.of(order)).when(ordersRepository).findById(1);
+        Mockito.doReturn(queuedRelease).when(outboxEventRepository)
+                .findByOrderIdAndEventTypeAndStatus(1, OutboxEventEntity.RELEASE_STOCK, OutboxEventEntity.PENDING);
+
+        ordersService.rejectUnreservedOrder(reserve, "Item with id 12 not in stock");
+
+        Mockito.verify(outboxEventRepository).deleteAll(queuedRelease);
+        Mockito.verify(outboxEventRepository).delete(reserve);
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+    }
+
+    @Test
+    void dropsQueuedReleaseWhenOrderWasDeletedBeforeItsReservationWasRefused() {
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        List<OutboxEventEntity> queuedRelease = List.of(new OutboxEventEntity(1, OutboxEventEntity.RELEASE_STOCK, 12, 10));
+        Mockito.doReturn(Optional.empty()).when(ordersRepository).findById(1);
+        Mockito.doReturn(queuedRelease).when(outboxEventRepository)
+                .findByOrderIdAndEventTypeAndStatus(1, OutboxEventEntity.RELEASE_STOCK, OutboxEventEntity.PENDING);
+
+        ordersService.rejectUnreservedOrder(reserve, "Item with id 12 not in stock");
+
+        Mockito.verify(outboxEventRepository).deleteAll(queuedRelease);
+        Mockito.verify(outboxEventRepository).delete(reserve);
+    }
+
+    @Test
+    void recordsIdempotencyKeyForCreatedOrder() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.NEW, "testcontact@example.com");
+        OrderEntity savedOrder = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.NEW, "testcontact@example.com");
+        savedOrder.setId(5);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(12, 20))).when(inventoryLookupCoalescer).getInventoryItemById(12);
+        Mockito.doReturn(savedOrder).when(ordersRepository).save(any(OrderEntity.class));
+
+        ordersService.createNewOrder(orderedItem, "retry-key-1");
+        Mockito.verify(orderIdempotencyStore).record("retry-key-1", 5);
+    }
+
+    @Test
+    void doesNotRecordIdempotencyKeyWhenCreationFails() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.NEW, "testcontact@example.com");
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(12, 2))).when(inventoryLookupCoalescer).getInventoryItemById(12);
+
+        Assertions.assertThrows(RuntimeException.class, () -> ordersService.createNewOrder(orderedItem, "retry-key-2"));
+        Mockito.verifyNoInteractions(orderIdempotencyStore);
     }
 
     @Test
@@ -68,7 +165,7 @@ public class OrdersServiceTest {
                 10,
                 100.0d,
                 1000.0d,
-                "invalid",
+                null,
                 "testcontact@example.com"
         );
         Assertions.assertThrows(RuntimeException.class, ()->{
@@ -86,10 +183,12 @@ public class OrdersServiceTest {
                 OrderStatus.NEW,
                 "testcontact@example.com"
         );
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(12, 100))).when(inventoryLookupCoalescer).getInventoryItemById(12);
         Mockito.doThrow(RuntimeException.class).when(ordersRepository).save(any(OrderEntity.class));
         Assertions.assertThrows(RuntimeException.class, ()->{
             OrderEntity returnedOrder = ordersService.createNewOrder(orderedItem);
         });
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
     }
 
     @Test
@@ -102,12 +201,30 @@ public class OrdersServiceTest {
                 OrderStatus.NEW,
                 "testcontact@example.com"
         );
-        InventoryItemDTO inventoryItemDTO = new InventoryItemDTO(12, 5);
         orderedItem.setId(1);
-        Mockito.doReturn(Mono.just(inventoryItemDTO)).when(inventoryServiceWebClient).getInventoryItemById(12);
+        Mockito.doReturn(Mono.just(new InventoryItemDTO(12, 5))).when(inventoryLookupCoalescer).getInventoryItemById(12);
         Assertions.assertThrows(RuntimeException.class, ()->{
             OrderEntity returnedOrder = ordersService.createNewOrder(orderedItem);
         });
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
+    }
+
+    @Test
+    void doesNotCreateOrderForUnknownItem() {
+        OrderEntity orderedItem = new OrderEntity(
+                12,
+                10,
+                100.0d,
+                1000.0d,
+                OrderStatus.NEW,
+                "testcontact@example.com"
+        );
+        Mockito.doReturn(Mono.empty()).when(inventoryLookupCoalescer).getInventoryItemById(12);
+        Assertions.assertThrows(RuntimeException.class, ()->{
+            OrderEntity returnedOrder = ordersService.createNewOrder(orderedItem);
+        });
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
 
     }
 
@@ -190,6 +307,36 @@ public class OrdersServiceTest {
         Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
         Boolean orderDeleted = ordersService.deleteOrderById(1);
         Assertions.assertTrue(orderDeleted);
+
+        ArgumentCaptor<OutboxEventEntity> event = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        Mockito.verify(outboxEventRepository).save(event.capture());
+        Assertions.assertEquals(OutboxEventEntity.RELEASE_STOCK, event.getValue().getEventType());
+        Assertions.assertEquals(1, event.getValue().getOrderId());
+        Assertions.assertEquals(10, event.getValue().getQuantity());
+        Mockito.verify(ordersRepository).deleteById(1);
+    }
+
+    @Test
+    void doesNotReleaseStockWhenDeletingShippedOrder() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.SHIPPED, "testcontact@example.com");
+        orderedItem.setId(1);
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+
+        Assertions.assertTrue(ordersService.deleteOrderById(1));
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
+        Mockito.verify(ordersRepository).deleteById(1);
+    }
+
+    @Test
+    void doesNotDeleteOrderStillInTheIntakePipeline() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 0, 0, OrderStatus.NEW, "testcontact@example.com");
+        orderedItem.setId(1);
+        orderedItem.setIntakeAcceptedAt(Instant.now());
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+
+        Assertions.assertThrows(RuntimeException.class, () -> ordersService.deleteOrderById(1));
+        Mockito.verify(ordersRepository, Mockito.never()).deleteById(1);
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
     }
 
     @Test
@@ -246,6 +393,65 @@ public class OrdersServiceTest {
         Assertions.assertEquals(OrderStatus.SHIPPED, updatedOrderReturned.getStatus());
     }
 
+    @Test
+    void releasesStockWhenOrderIsReturned() {
+        OrderEntity orderedItem = new OrderEntity(
+                12,
+                10,
+                100.0d,
+                1000.0d,
+                OrderStatus.RETURN_PLACED,
+                "testcontact@example.com"
+        );
+        orderedItem.setId(1);
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+        OrderEntity updatedOrder = new OrderEntity(
+                12,
+                10,
+                100.0d,
+                1000.0d,
+                OrderStatus.RETURNED,
+                "testcontact@example.com"
+        );
+        updatedOrder.setId(1);
+        Mockito.doReturn(updatedOrder).when(ordersRepository).save(any(OrderEntity.class));
+
+        ordersService.updateOrder(1, updatedOrder);
+        ArgumentCaptor<OutboxEventEntity> outboxEvent = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        Mockito.verify(outboxEventRepository).save(outboxEvent.capture());
+        Assertions.assertEquals(OutboxEventEntity.RELEASE_STOCK, outboxEvent.getValue().getEventType());
+    }
+
+    @Test
+    void releasesStockWhenOrderIsRejected() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.PROCESSING, "testcontact@example.com");
+        orderedItem.setId(1);
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+        OrderEntity updatedOrder = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.REJECTED, "testcontact@example.com");
+        updatedOrder.setId(1);
+        Mockito.doReturn(updatedOrder).when(ordersRepository).save(any(OrderEntity.class));
+
+        ordersService.updateOrder(1, updatedOrder);
+        ArgumentCaptor<OutboxEventEntity> outboxEvent = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        Mockito.verify(outboxEventRepository).save(outboxEvent.capture());
+        Assertions.assertEquals(OutboxEventEntity.RELEASE_STOCK, outboxEvent.getValue().getEventType());
+        Assertions.assertEquals(10, outboxEvent.getValue().getQuantity());
+    }
+
+    @Test
+    void doesNotUpdateOrderStillInTheIntakePipeline() {
+        OrderEntity orderedItem = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.NEW, "testcontact@example.com");
+        orderedItem.setId(1);
+        orderedItem.setIntakeAcceptedAt(Instant.now());
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+        OrderEntity updatedOrder = new OrderEntity(12, 10, 100.0d, 1000.0d, OrderStatus.REJECTED, "testcontact@example.com");
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> ordersService.updateOrder(1, updatedOrder));
+        Assertions.assertEquals("Order with id 1 is still being processed. Try again later.", exception.getMessage());
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
+    }
+
     @Test
     void doesNotUpdateOrderIfAnythingElseChangesOtherThanStatus() {
         OrderEntity orderedItem = new OrderEntity(
@@ -315,7 +521,7 @@ public class OrdersServiceTest {
                 10,
                 100.0d,
                 1000.00d,
-                "invalid",
+                null,
                 "testcontact@example.com"
         );
         updatedOrder.setId(1);
@@ -325,6 +531,32 @@ public class OrdersServiceTest {
     }
 
 
+    @Test
+    void doesNotUpdateForStatusChangeOutsideTransitionTable() {
+        OrderEntity orderedItem = new OrderEntity(
+                12,
+                10,
+                100.0d,
+                1000.0d,
+                OrderStatus.DELIVERED,
+                "testcontact@example.com"
+        );
+        orderedItem.setId(1);
+        Mockito.doReturn(Optional.of(orderedItem)).when(ordersRepository).findById(1);
+        OrderEntity updatedOrder = new OrderEntity(
+                12,
+                10,
+                100.0d,
+                1000.00d,
+                OrderStatus.NEW,
+                "testcontact@example.com"
+        );
+        updatedOrder.setId(1);
+        Assertions.assertThrows(RuntimeException.class, () -> {
+            ordersService.updateOrder(1, updatedOrder);
+        });
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+    }
 
     @Test
     void doesNotUpdateWhenOrderWithIdDoesNotExist() {
@@ -397,7 +629,7 @@ public class OrdersServiceTest {
     @Test
     void throwsExceptionWhenInvalidStatusIsPassed() {
         Assertions.assertThrows(RuntimeException.class, () -> {
-            List<OrderEntity> orders = ordersService.findAllOrderByStatus("invalid");
+            List<OrderEntity> orders = ordersService.findAllOrderByStatus(null);
         });
     }
 
@@ -412,7 +644,33 @@ public class OrdersServiceTest {
     void throwsExceptionWhenFindingByStatusFails() {
         Mockito.doThrow(RuntimeException.class).when(ordersRepository).findByStatus(OrderStatus.NEW);
         Assertions.assertThrows(RuntimeException.class, () -> {
-            List<OrderEntity> orders = ordersService.findAllOrderByStatus("invalid");
+            List<OrderEntity> orders = ordersService.findAllOrderByStatus(OrderStatus.NEW);
         });
     }
+
+    @Test
+    void returnsPageOfOrdersWithStatusAndNextCursor() {
+        OrderEntity firstOrder = new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "testcontact@example.com");
+        firstOrder.setId(4);
+        OrderEntity secondOrder = new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "testcontact@example.com");
+        secondOrder.setId(9);
+        Mockito.doReturn(Arrays.asList(firstOrder, secondOrder)).when(ordersRepository)
+                .findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.PROCESSING, 0, Limit.of(2));
+
+        OrdersPageDTO page = ordersService.findOrdersPageByStatus(OrderStatus.PROCESSING, 0, 1);
+        Assertions.assertEquals(1, page.getItems().size());
+        Assertions.assertEquals(4, page.getNextCursor());
+    }
+
+    @Test
+    void returnsLastPageWithoutNextCursor() {
+        OrderEntity firstOrder = new OrderEntity(12, 1, 10.0d, 10.0d, OrderStatus.PROCESSING, "testcontact@example.com");
+        firstOrder.setId(4);
+        Mockito.doReturn(Arrays.asList(firstOrder)).when(ordersRepository)
+                .findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.PROCESSING, 0, Limit.of(3));
+
+        OrdersPageDTO page = ordersService.findOrdersPageByStatus(OrderStatus.PROCESSING, 0, 2);
+        Assertions.assertEquals(1, page.getItems().size());
+        Assertions.assertNull(page.getNextCursor());
+    }
 }
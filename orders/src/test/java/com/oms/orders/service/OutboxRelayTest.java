@@ -0,0 +1,118 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OutboxEventEntity;
+import com.oms.orders.repository.OutboxEventRepository;
+import com.oms.orders.webclient.InventoryServiceWebClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private InventoryServiceWebClient inventoryServiceWebClient;
+
+    @Mock
+    private OrdersService ordersService;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setup() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, inventoryServiceWebClient, ordersService, 10, 4, 3, 1000);
+    }
+
+    @Test
+    void sendsPendingEventsWithTheirIdempotencyKeysAndDeletesDeliveredOnes() {
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        OutboxEventEntity release = new OutboxEventEntity(2, OutboxEventEntity.RELEASE_STOCK, 13, 5);
+        Mockito.doReturn(Arrays.asList(reserve, release)).when(outboxEventRepository)
+                .findDueInOrderOfEachOrder(eq(OutboxEventEntity.PENDING), any(), any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(12, 10, reserve.getIdempotencyKey());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).releaseStock(13, 5, release.getIdempotencyKey());
+
+        outboxRelay.relayPendingEvents();
+
+        ArgumentCaptor<List<OutboxEventEntity>> delivered = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(outboxEventRepository).deleteAllInBatch(delivered.capture());
+        Assertions.assertEquals(2, delivered.getValue().size());
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
+    }
+
+    @Test
+    void schedulesARetryWhenDeliveryFails() {
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        Mockito.doReturn(List.of(reserve)).when(outboxEventRepository)
+                .findDueInOrderOfEachOrder(eq(OutboxEventEntity.PENDING), any(), any());
+        Mockito.doReturn(Mono.error(new RuntimeException("inventory unavailable")))
+                .when(inventoryServiceWebClient).reserveStock(12, 10, reserve.getIdempotencyKey());
+
+        outboxRelay.relayPendingEvents();
+
+        Mockito.verify(outboxEventRepository).save(reserve);
+        Assertions.assertEquals(OutboxEventEntity.PENDING, reserve.getStatus());
+        Assertions.assertEquals(1, reserve.getAttempts());
+        Assertions.assertEquals("inventory unavailable", reserve.getLastError());
+        Assertions.assertTrue(reserve.getNextAttemptAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void marksEventFailedAfterMaxAttempts() {
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        reserve.setAttempts(2);
+        Mockito.doReturn(List.of(reserve)).when(outboxEventRepository)
+                .findDueInOrderOfEachOrder(eq(OutboxEventEntity.PENDING), any(), any());
+        Mockito.doReturn(Mono.error(new RuntimeException("Item with id 12 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(12, 10, reserve.getIdempotencyKey());
+
+        outboxRelay.relayPendingEvents();
+
+        Mockito.verify(outboxEventRepository).save(reserve);
+        Assertions.assertEquals(OutboxEventEntity.FAILED, reserve.getStatus());
+        Assertions.assertEquals(3, reserve.getAttempts());
+    }
+
+    @Test
+    void rejectsTheOrderInsteadOfRetryingWhenStockIsRefused() {
+        OutboxEventEntity reserve = new OutboxEventEntity(1, OutboxEventEntity.RESERVE_STOCK, 12, 10);
+        Mockito.doReturn(List.of(reserve)).when(outboxEventRepository)
+                .findDueInOrderOfEachOrder(eq(OutboxEventEntity.PENDING), any(), any());
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 12 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(12, 10, reserve.getIdempotencyKey());
+
+        outboxRelay.relayPendingEvents();
+
+        Mockito.verify(ordersService).rejectUnreservedOrder(reserve, "Item with id 12 not in stock");
+        Mockito.verify(outboxEventRepository, Mockito.never()).save(any(OutboxEventEntity.class));
+        Assertions.assertEquals(0, reserve.getAttempts());
+    }
+
+    @Test
+    void doesNothingWhenOutboxIsEmpty() {
+        Mockito.doReturn(List.of()).when(outboxEventRepository)
+                .findDueInOrderOfEachOrder(eq(OutboxEventEntity.PENDING), any(), any());
+
+        outboxRelay.relayPendingEvents();
+
+        Mockito.verifyNoInteractions(inventoryServiceWebClient);
+        Mockito.verify(outboxEventRepository, Mockito.never()).deleteAllInBatch(any());
+    }
+}
@@ -0,0 +1,149 @@
+package com.oms.orders.service;
+
+import com.oms.catalog.dto.CatalogDTO;
+import com.oms.catalog.webClient.OutOfStockException;
+import com.oms.orders.entity.OrderEntity;
+import com.oms.orders.entity.OrderStatus;
+import com.oms.orders.repository.OrdersRepository;
+import com.oms.orders.webclient.CatalogItemCache;
+import com.oms.orders.webclient.InventoryServiceWebClient;
+import com.oms.orders.webclient.StockReservationCombiner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveOrdersServiceTest {
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    @Mock
+    private InventoryServiceWebClient inventoryServiceWebClient;
+
+    @Mock
+    private StockReservationCombiner stockReservationCombiner;
+
+    @Mock
+    private CatalogItemCache catalogItemCache;
+
+    private Scheduler jdbcScheduler;
+
+    private ReactiveOrdersService reactiveOrdersService;
+
+    private OrderEntity orderedItem;
+
+    @BeforeEach
+    void setup() {
+        jdbcScheduler = Schedulers.newBoundedElastic(2, 10, "orders-jdbc-test");
+        reactiveOrdersService = new ReactiveOrdersService(ordersRepository, inventoryServiceWebClient, catalogItemCache, stockReservationCombiner, jdbcScheduler);
+        orderedItem = new OrderEntity(12, 10, 0, 0, OrderStatus.DELIVERED, "testcontact@example.com");
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcScheduler.dispose();
+    }
+
+    @Test
+    void createsNewOrderWithCatalogPrice() {
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+        Mockito.doAnswer(invocation -> {
+            OrderEntity saved = invocation.getArgument(0);
+            saved.setId(1);
+            return saved;
+        }).when(ordersRepository).save(any(OrderEntity.class));
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem))
+                .expectNextMatches(order -> order.getId() == 1
+                        && order.getTotalPrice() == 200d
+                        && order.getStatus().equals(OrderStatus.NEW))
+                .verifyComplete();
+    }
+
+    @Test
+    void doesNotSaveOrderWhenItemNotInStock() {
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 12 not in stock"))).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError(OutOfStockException.class);
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+        Mockito.verifyNoInteractions(inventoryServiceWebClient);
+    }
+
+    @Test
+    void releasesReservationThatWasAppliedDespiteFailing() {
+        ArgumentCaptor<String> reservationKey = ArgumentCaptor.forClass(String.class);
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.error(new TimeoutException())).when(stockReservationCombiner).reserveStock(eq(12), eq(10), reservationKey.capture());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(eq(12), eq(10), any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).releaseStock(eq(12), eq(10), any());
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError(TimeoutException.class);
+        Mockito.verify(inventoryServiceWebClient).reserveStock(12, 10, reservationKey.getValue());
+        Mockito.verify(inventoryServiceWebClient).releaseStock(12, 10, reservationKey.getValue() + "-release");
+        Mockito.verify(ordersRepository, Mockito.never()).save(any(OrderEntity.class));
+    }
+
+    @Test
+    void doesNotReleaseFailedReservationThatWasNeverApplied() {
+        ArgumentCaptor<String> reservationKey = ArgumentCaptor.forClass(String.class);
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.error(new TimeoutException())).when(stockReservationCombiner).reserveStock(eq(12), eq(10), reservationKey.capture());
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 12 not in stock"))).when(inventoryServiceWebClient).reserveStock(eq(12), eq(10), any());
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError(TimeoutException.class);
+        Mockito.verify(inventoryServiceWebClient).reserveStock(12, 10, reservationKey.getValue());
+        Mockito.verify(inventoryServiceWebClient, Mockito.never()).releaseStock(eq(12), eq(10), any());
+    }
+
+    @Test
+    void releasesStockWhenPriceLookupFails() {
+        Mockito.doReturn(Mono.error(new RuntimeException("catalog unavailable"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).releaseStock(eq(12), eq(10), any());
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError();
+        Mockito.verify(inventoryServiceWebClient).releaseStock(eq(12), eq(10), endsWith("-release"));
+    }
+
+    @Test
+    void releasesStockWhenSavingOrderFails() {
+        Mockito.doReturn(Mono.just(new CatalogDTO(12, "item", 20d, "category1"))).when(catalogItemCache).getCatalogItem(12);
+        Mockito.doReturn(Mono.empty()).when(stockReservationCombiner).reserveStock(eq(12), eq(10), any());
+        AtomicInteger releaseAttempts = new AtomicInteger();
+        Mockito.doReturn(Mono.defer(() -> releaseAttempts.incrementAndGet() == 1 ? Mono.error(new RuntimeException("inventory unavailable")) : Mono.empty()))
+                .when(inventoryServiceWebClient).releaseStock(eq(12), eq(10), any());
+        Mockito.doThrow(RuntimeException.class).when(ordersRepository).save(any(OrderEntity.class));
+
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError();
+        Mockito.verify(inventoryServiceWebClient).releaseStock(eq(12), eq(10), endsWith("-release"));
+        Assertions.assertEquals(2, releaseAttempts.get());
+    }
+
+    @Test
+    void rejectsNonPositiveQuantities() {
+        orderedItem.setQuantity(0);
+        StepVerifier.create(reactiveOrdersService.createNewOrder(orderedItem)).verifyError();
+        Mockito.verifyNoInteractions(stockReservationCombiner);
+        Mockito.verifyNoInteractions(inventoryServiceWebClient);
+    }
+}
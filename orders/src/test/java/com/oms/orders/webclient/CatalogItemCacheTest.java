@@ -0,0 +1,81 @@
+package com.oms.orders.webclient;
+
+import com.oms.catalog.dto.CatalogDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogItemCacheTest {
+
+    @Mock
+    private CatalogServiceWebClient catalogServiceWebClient;
+
+    private CatalogItemCache catalogItemCache;
+
+    private CatalogDTO catalogDTO;
+
+    @BeforeEach
+    void setup() {
+        catalogItemCache = new CatalogItemCache(catalogServiceWebClient, 100, 300, 30, new SimpleMeterRegistry());
+        catalogDTO = new CatalogDTO(1, "testItem", 10d, "category1");
+    }
+
+    @Test
+    void servesRepeatedLookupsFromTheCache() {
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogServiceWebClient).getCatalogItem(1);
+
+        StepVerifier.create(catalogItemCache.getCatalogItem(1))
+                .expectNextMatches(item -> item.getPricePerUnit() == 10d)
+                .verifyComplete();
+        StepVerifier.create(catalogItemCache.getCatalogItem(1))
+                .expectNextMatches(item -> item.getPricePerUnit() == 10d)
+                .verifyComplete();
+
+        Mockito.verify(catalogServiceWebClient, Mockito.times(1)).getCatalogItem(1);
+    }
+
+    @Test
+    void sharesOneCatalogCallBetweenConcurrentMisses() {
+        Sinks.One<CatalogDTO> pendingResponse = Sinks.one();
+        Mockito.doReturn(pendingResponse.asMono()).when(catalogServiceWebClient).getCatalogItem(1);
+
+        Mono<CatalogDTO> firstLookup = catalogItemCache.getCatalogItem(1);
+        Mono<CatalogDTO> secondLookup = catalogItemCache.getCatalogItem(1);
+        pendingResponse.tryEmitValue(catalogDTO);
+
+        Assertions.assertSame(catalogDTO, firstLookup.block());
+        Assertions.assertSame(catalogDTO, secondLookup.block());
+        Mockito.verify(catalogServiceWebClient, Mockito.times(1)).getCatalogItem(1);
+    }
+
+    @Test
+    void doesNotCacheFailedLookups() {
+        Mockito.doReturn(Mono.error(new RuntimeException("catalog unavailable")), Mono.just(catalogDTO))
+                .when(catalogServiceWebClient).getCatalogItem(1);
+
+        StepVerifier.create(catalogItemCache.getCatalogItem(1)).verifyError();
+        StepVerifier.create(catalogItemCache.getCatalogItem(1))
+                .expectNextMatches(item -> item.getId() == 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void reloadsItemAfterInvalidation() {
+        Mockito.doReturn(Mono.just(catalogDTO)).when(catalogServiceWebClient).getCatalogItem(1);
+
+        catalogItemCache.getCatalogItem(1).block();
+        catalogItemCache.invalidate(1);
+        catalogItemCache.getCatalogItem(1).block();
+
+        Mockito.verify(catalogServiceWebClient, Mockito.times(2)).getCatalogItem(1);
+    }
+}
@@ -15,6 +15,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Arrays;
+import java.util.List;
+
 @ExtendWith(MockitoExtension.class)
 public class CatalogServiceWebClientTest {
 
@@ -60,4 +63,19 @@ public class CatalogServiceWebClientTest {
                 .verifyComplete();
 
     }
+
+    @Test
+    void fetchesCatalogItemsInOneBatch() {
+        List<Integer> ids = Arrays.asList(1, 2);
+        ResponseEntity<List<CatalogDTO>> response = new ResponseEntity<>(Arrays.asList(catalogDTO), HttpStatus.OK);
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("api/v1/catalog/items/batch");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(ids);
+        Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
+        Mockito.doReturn(Mono.just(response)).when(responseSpec).toEntityList(CatalogDTO.class);
+        StepVerifier.create(catalogServiceWebClient.getCatalogItems(ids))
+                .expectNextMatches(items -> items.size() == 1 && items.get(0).getId() == 1)
+                .verifyComplete();
+    }
 }
@@ -16,6 +16,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Arrays;
+import java.util.List;
+
 @ExtendWith(MockitoExtension.class)
 public class InventoryServiceWebClientTest {
 
@@ -74,7 +77,7 @@ public class InventoryServiceWebClientTest {
         Mockito.doReturn(requestBodyUriSpec).when(webClient).patch();
         Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items");
         Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
-        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(testItem);
         Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
         Mockito.doReturn(Mono.just(ResponseEntity.ok().build())).when(responseSpec).toBodilessEntity();
         StepVerifier.create(inventoryServiceWebClient.updateInventoryAfterOperation(testItem)).verifyComplete();
@@ -85,10 +88,59 @@ public class InventoryServiceWebClientTest {
         Mockito.doReturn(requestBodyUriSpec).when(webClient).patch();
         Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items");
         Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
-        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(testItem);
         Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
         Mockito.doReturn(Mono.just(ResponseEntity.internalServerError().build())).when(responseSpec).toBodilessEntity();
         StepVerifier.create(inventoryServiceWebClient.updateInventoryAfterOperation(testItem)).expectError();
     }
 
+    @Test
+    void reservesStock() {
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items/1/reserve?quantity=5");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(responseSpec).when(requestBodySpec).retrieve();
+        Mockito.doReturn(responseSpec).when(responseSpec).onStatus(Mockito.any(), Mockito.any());
+        Mockito.doReturn(Mono.just(ResponseEntity.ok().build())).when(responseSpec).toBodilessEntity();
+        StepVerifier.create(inventoryServiceWebClient.reserveStock(1, 5)).verifyComplete();
+    }
+
+    @Test
+    void releasesStock() {
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items/1/release?quantity=5");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(responseSpec).when(requestBodySpec).retrieve();
+        Mockito.doReturn(responseSpec).when(responseSpec).onStatus(Mockito.any(), Mockito.any());
+        Mockito.doReturn(Mono.just(ResponseEntity.internalServerError().build())).when(responseSpec).toBodilessEntity();
+        StepVerifier.create(inventoryServiceWebClient.releaseStock(1, 5)).verifyError();
+    }
+
+    @Test
+    void getsInventoryItemsByIds() {
+        List<Integer> ids = Arrays.asList(1, 2);
+        ResponseEntity<List<InventoryItemDTO>> responseEntity = new ResponseEntity<>(Arrays.asList(testItem, new InventoryItemDTO(2, 20)), HttpStatus.OK);
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items/batch");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(ids);
+        Mockito.doReturn(responseSpec).when(requestHeadersSpec).retrieve();
+        Mockito.doReturn(Mono.just(responseEntity)).when(responseSpec).toEntityList(InventoryItemDTO.class);
+        StepVerifier.create(inventoryServiceWebClient.getInventoryItemsByIds(ids))
+                .expectNextMatches(items -> items.size() == 2 && items.get(1).getQuantity() == 20)
+                .verifyComplete();
+    }
+
+    @Test
+    void sendsIdempotencyKeyWhenReservingStock() {
+        Mockito.doReturn(requestBodyUriSpec).when(webClient).post();
+        Mockito.doReturn(requestBodySpec).when(requestBodyUriSpec).uri("/api/v1/inventory/items/1/reserve?quantity=5");
+        Mockito.doReturn(requestBodySpec).when(requestBodySpec).header(Mockito.anyString(), Mockito.anyString());
+        Mockito.doReturn(responseSpec).when(requestBodySpec).retrieve();
+        Mockito.doReturn(responseSpec).when(responseSpec).onStatus(Mockito.any(), Mockito.any());
+        Mockito.doReturn(Mono.just(ResponseEntity.ok().build())).when(responseSpec).toBodilessEntity();
+        StepVerifier.create(inventoryServiceWebClient.reserveStock(1, 5, "order-1-reserve")).verifyComplete();
+        Mockito.verify(requestBodySpec).header("Idempotency-Key", "order-1-reserve");
+    }
+
 }
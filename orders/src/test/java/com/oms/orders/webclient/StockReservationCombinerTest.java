@@ -0,0 +1,108 @@
+package com.oms.orders.webclient;
+
+import com.oms.catalog.webClient.OutOfStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class StockReservationCombinerTest {
+
+    @Mock
+    private InventoryServiceWebClient inventoryServiceWebClient;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void reservesCombinedQuantityPerItemWithOneCall() {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 50, 100, meterRegistry);
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 5, "order-1-reserve, order-2-reserve");
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(2, 4, "order-3-reserve");
+
+        Mono<Void> first = combiner.reserveStock(1, 2, "order-1-reserve");
+        Mono<Void> second = combiner.reserveStock(1, 3, "order-2-reserve");
+        Mono<Void> third = combiner.reserveStock(2, 4, "order-3-reserve");
+
+        StepVerifier.create(Mono.when(first, second, third)).verifyComplete();
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(1)).reserveStock(1, 5, "order-1-reserve, order-2-reserve");
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(1)).reserveStock(2, 4, "order-3-reserve");
+        Assertions.assertEquals(3, meterRegistry.get("orders.stock.combiner.batch.size").summary().totalAmount());
+        Assertions.assertEquals(3, meterRegistry.get("orders.stock.combiner.latency").timer().count());
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchIsFull() {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 60_000, 2, meterRegistry);
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 3, "order-1-reserve, order-2-reserve");
+
+        Mono<Void> first = combiner.reserveStock(1, 1, "order-1-reserve");
+        Mono<Void> second = combiner.reserveStock(1, 2, "order-2-reserve");
+
+        StepVerifier.create(Mono.when(first, second)).verifyComplete();
+    }
+
+    @Test
+    void doesNotCutTheNextWindowShortWithTheTimerOfAFullBatch() throws InterruptedException {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 1000, 2, meterRegistry);
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 3, "order-1-reserve, order-2-reserve");
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 4, "order-3-reserve");
+
+        StepVerifier.create(Mono.when(combiner.reserveStock(1, 1, "order-1-reserve"), combiner.reserveStock(1, 2, "order-2-reserve")))
+                .verifyComplete();
+        Thread.sleep(500);
+        Mono<Void> third = combiner.reserveStock(1, 4, "order-3-reserve");
+        // The full batch's timer fires at 1000 ms; the third reservation's window only ends at 1500 ms.
+        Thread.sleep(700);
+        Mockito.verify(inventoryServiceWebClient, Mockito.never()).reserveStock(1, 4, "order-3-reserve");
+
+        StepVerifier.create(third).verifyComplete();
+    }
+
+    @Test
+    void reservesOneByOneWhenCombinedQuantityIsOutOfStock() {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 50, 100, meterRegistry);
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 1 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(1, 7, "order-1-reserve, order-2-reserve");
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 4, "order-1-reserve");
+        Mockito.doReturn(Mono.error(new OutOfStockException("Item with id 1 not in stock")))
+                .when(inventoryServiceWebClient).reserveStock(1, 3, "order-2-reserve");
+
+        Mono<Void> first = combiner.reserveStock(1, 4, "order-1-reserve");
+        Mono<Void> second = combiner.reserveStock(1, 3, "order-2-reserve");
+
+        StepVerifier.create(first).verifyComplete();
+        StepVerifier.create(second).verifyErrorMessage("Item with id 1 not in stock");
+    }
+
+    @Test
+    void reservesOneByOneOnTheirOwnKeysWhenTheCombinedCallFails() {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 10, 100, meterRegistry);
+        Mockito.doReturn(Mono.error(new RuntimeException("inventory timed out")))
+                .when(inventoryServiceWebClient).reserveStock(1, 3, "order-1-reserve, order-2-reserve");
+        Mockito.doReturn(Mono.empty()).when(inventoryServiceWebClient).reserveStock(1, 1, "order-1-reserve");
+        Mockito.doReturn(Mono.error(new RuntimeException("inventory unavailable")))
+                .when(inventoryServiceWebClient).reserveStock(1, 2, "order-2-reserve");
+
+        Mono<Void> first = combiner.reserveStock(1, 1, "order-1-reserve");
+        Mono<Void> second = combiner.reserveStock(1, 2, "order-2-reserve");
+
+        StepVerifier.create(first).verifyComplete();
+        StepVerifier.create(second).verifyErrorMessage("inventory unavailable");
+    }
+
+    @Test
+    void failsALoneReservationWithTheErrorOfItsCall() {
+        StockReservationCombiner combiner = new StockReservationCombiner(inventoryServiceWebClient, 10, 100, meterRegistry);
+        Mockito.doReturn(Mono.error(new RuntimeException("inventory unavailable")))
+                .when(inventoryServiceWebClient).reserveStock(1, 1, "order-1-reserve");
+
+        StepVerifier.create(combiner.reserveStock(1, 1, "order-1-reserve")).verifyErrorMessage("inventory unavailable");
+        Mockito.verify(inventoryServiceWebClient, Mockito.times(1)).reserveStock(1, 1, "order-1-reserve");
+    }
+}
@@ -0,0 +1,107 @@
+package com.oms.orders.webclient;
+
+import com.oms.catalog.webClient.DownstreamClientFactory;
+import com.oms.catalog.webClient.DownstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Not picked up by the default surefire includes; run with
+//   mvn -pl orders test -Dtest=UnixSocketTransportBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// One Tomcat serves a catalog-sized JSON document on both loopback TCP and a Unix domain socket, and the
+// same WebClient setup the services use calls it sequentially over each transport.
+public class UnixSocketTransportBenchmark {
+
+    private static final int WARMUP_CALLS = 5_000;
+
+    private static final int MEASURED_CALLS = Integer.getInteger("benchmark.calls", 20_000);
+
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"Ceramic mug\",\"description\":\"350ml stoneware mug\",\"price\":12.5,\"available\":true}";
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+
+    private DownstreamClientFactory factory = new DownstreamClientFactory("benchmark", new SimpleMeterRegistry());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareLoopbackTcpWithUnixSocket() throws Exception {
+        Path socketPath = tempDir.resolve("catalog.sock");
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(tempDir.toString());
+        Connector tcpConnector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+        tcpConnector.setPort(0);
+        tomcat.setConnector(tcpConnector);
+        Connector unixConnector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+        unixConnector.setProperty("unixDomainSocketPath", socketPath.toString());
+        tomcat.getService().addConnector(unixConnector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "items", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write(ITEM_JSON);
+            }
+        });
+        context.addServletMappingDecoded("/*", "items");
+        tomcat.start();
+        try {
+            report("loopback tcp", measure(webClient("http://localhost:" + tcpConnector.getLocalPort(), null)));
+            report("unix socket", measure(webClient("http://localhost", socketPath.toString())));
+        } finally {
+            factory.destroy();
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private WebClient webClient(String baseUrl, String unixSocketPath) {
+        DownstreamProperties.Downstream settings = new DownstreamProperties.Downstream();
+        settings.setBaseUrl(baseUrl);
+        settings.setUnixSocketPath(unixSocketPath);
+        return factory.create(WebClient.builder(), "catalog", settings);
+    }
+
+    private long[] measure(WebClient webClient) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call(webClient);
+        }
+        long[] latencies = new long[MEASURED_CALLS];
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long startedAt = System.nanoTime();
+            call(webClient);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private void call(WebClient webClient) {
+        webClient.get().uri("/api/v1/items/1").retrieve().bodyToMono(String.class).block();
+    }
+
+    private void report(String transport, long[] sortedLatencies) {
+        logger.info(String.format("%-12s calls=%d p50=%.1fus p99=%.1fus p99.9=%.1fus", transport, sortedLatencies.length,
+                percentile(sortedLatencies, 0.50), percentile(sortedLatencies, 0.99), percentile(sortedLatencies, 0.999)));
+    }
+
+    private double percentile(long[] sortedLatencies, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000.0;
+    }
+}